@@ -0,0 +1,141 @@
+package com.example.cache;
+
+import com.example.repository.UserRepository;
+import com.example.routing.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Approximate set of taken emails. A negative answer is exact for every email this
+ * instance has seen, so the write path can skip the {@code existsByEmail} round trip for
+ * it and rely on the unique constraint; a positive answer only means "check the
+ * database". Deletes are not removed, they merely add false positives until the next
+ * rebuild. Until the startup rebuild finishes every email is reported as present.
+ */
+@Component
+public class EmailBloomFilter {
+    private final boolean enabled;
+    private final int numBits;
+    private final int numHashes;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile AtomicLongArray bits;
+    private volatile boolean ready;
+
+    public EmailBloomFilter(@Value("${app.email-filter.enabled:true}") boolean enabled,
+                            @Value("${app.email-filter.expected-insertions:10000000}") long expectedInsertions,
+                            @Value("${app.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                            UserRepository userRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Math.max(optimalBits, 64), Integer.MAX_VALUE - 63);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        if (enabled) {
+            Thread thread = new Thread(this::rebuild, "email-filter-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public synchronized void rebuild() {
+        ready = false;
+        AtomicLongArray scanned = new AtomicLongArray(bits.length());
+        // From the primary: emails a lagging replica has not replayed yet would be missing.
+        ReplicaRoutingDataSource.onPrimary(() -> {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> set(scanned, email));
+                }
+            });
+            return null;
+        });
+        // Merge after publishing: a put still writing to the old array either lands before
+        // its word is merged or sees the new array when it re-reads bits.
+        AtomicLongArray previous = bits;
+        bits = scanned;
+        for (int i = 0; i < previous.length(); i++) {
+            long word = previous.get(i);
+            scanned.getAndAccumulate(i, word, (current, merged) -> current | merged);
+        }
+        ready = true;
+    }
+
+    public boolean mightContain(String email) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        AtomicLongArray current = bits;
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            if ((current.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String email) {
+        if (!enabled) {
+            return;
+        }
+        AtomicLongArray current = bits;
+        set(current, email);
+        // A rebuild swapped the array while we were writing to the old one.
+        AtomicLongArray latest = bits;
+        if (latest != current) {
+            set(latest, email);
+        }
+    }
+
+    private void set(AtomicLongArray target, String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            target.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+        }
+    }
+
+    private int index(int combined) {
+        return (combined & Integer.MAX_VALUE) % numBits;
+    }
+
+    // 64-bit FNV-1a over UTF-8 followed by a murmur3 finalizer.
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
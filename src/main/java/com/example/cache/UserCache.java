@@ -0,0 +1,154 @@
+package com.example.cache;
+
+import com.example.dto.UserResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of {@link UserResponse} by id. Caffeine's W-TinyLFU policy
+ * keeps the hot, skewed part of the key space resident. When disabled every call goes
+ * straight to the loader.
+ * <p>
+ * Entries are futures so that a load never runs inside the cache's internal map lock:
+ * the caller that installs the future performs the JDBC read afterwards, and concurrent
+ * callers for the same id wait on the future. Blocking I/O under a {@code synchronized}
+ * bin lock would pin virtual threads to their carrier.
+ * <p>
+ * Entries expire {@code app.cache.users.ttl} after they were loaded (zero disables
+ * expiry). Writes by this instance evict at once and writes elsewhere are evicted when
+ * the change feed publishes them; the ttl bounds staleness when neither applies, e.g.
+ * with the feed off or plain SQL.
+ */
+@Component
+public class UserCache {
+    private final AsyncCache<Long, UserResponse> cache;
+
+    public UserCache(@Value("${app.cache.users.enabled:true}") boolean enabled,
+                     @Value("${app.cache.users.maximum-size:100000}") long maximumSize,
+                     @Value("${app.cache.users.ttl:PT10M}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (ttl != null && !ttl.isZero()) {
+            builder.expireAfterWrite(ttl);
+        }
+        this.cache = builder.buildAsync();
+        new CaffeineCacheMetrics<>(cache.synchronous(), "users", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Returns the cached user or loads it. A {@code null} from the loader (unknown id) is
+     * passed through and not cached.
+     */
+    public UserResponse get(Long id, Function<Long, UserResponse> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        CompletableFuture<UserResponse> pending = new CompletableFuture<>();
+        CompletableFuture<UserResponse> entry = cache.get(id, (key, executor) -> pending);
+        if (entry == pending) {
+            try {
+                pending.complete(loader.apply(id));
+            } catch (RuntimeException e) {
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * The cached user if its load has completed, without loading or waiting; {@code null}
+     * otherwise.
+     */
+    public UserResponse getIfPresent(Long id) {
+        if (cache == null) {
+            return null;
+        }
+        CompletableFuture<UserResponse> entry = cache.getIfPresent(id);
+        return entry != null && entry.isDone() && !entry.isCompletedExceptionally() ? entry.join() : null;
+    }
+
+    /**
+     * Bulk variant of {@link #get}: cached ids are answered from memory and all misses are
+     * handed to {@code loader} in one call. Ids the loader does not return are absent
+     * from the result and are not cached.
+     */
+    public Map<Long, UserResponse> getAll(Set<Long> ids,
+                                          Function<Set<? extends Long>, Map<Long, UserResponse>> loader) {
+        if (cache == null) {
+            return loader.apply(ids);
+        }
+        return cache.getAll(ids, (missing, executor) -> CompletableFuture.completedFuture(loader.apply(missing)))
+                .join();
+    }
+
+    /**
+     * Drops the entry now and again once the surrounding transaction completes. The
+     * second invalidation removes any value a concurrent reader loaded from the
+     * not-yet-committed state. Invalidating an in-flight load discards its future, so a
+     * read that started before the commit can return the old value to its own caller but
+     * never leaves it in the cache.
+     */
+    public void evict(Long id) {
+        if (cache == null) {
+            return;
+        }
+        cache.synchronous().invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.synchronous().invalidate(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops every entry, now and after the surrounding transaction completes, for writes
+     * that do not know which ids they touched (bulk DML).
+     */
+    public void evictAll() {
+        if (cache == null) {
+            return;
+        }
+        cache.synchronous().invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.synchronous().invalidateAll();
+                }
+            });
+        }
+    }
+}
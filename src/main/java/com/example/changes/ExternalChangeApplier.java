@@ -0,0 +1,60 @@
+package com.example.changes;
+
+import com.example.cache.EmailBloomFilter;
+import com.example.cache.UserCache;
+import com.example.dto.UserChange;
+import com.example.dto.UserChange.Operation;
+import com.example.dto.UserResponse;
+import com.example.entity.User;
+import com.example.search.UserSuggestIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies changes written elsewhere (another instance, the native {@code UserDao}, the
+ * reactive process) to this instance's {@link UserCache}, second-level cache, suggest
+ * index and email filter, as {@link UserChangeFeed} publishes them. The user statistics
+ * rollup is not kept current this way; the next reconcile corrects it.
+ * <p>
+ * The natural-id region maps emails to ids and cannot be evicted per user, so an external
+ * update or delete clears it.
+ */
+@Component
+public class ExternalChangeApplier {
+    private final UserCache userCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserSuggestIndex suggestIndex;
+    private final EmailBloomFilter emailFilter;
+
+    public ExternalChangeApplier(UserChangeFeed changeFeed,
+                                 UserCache userCache,
+                                 EntityManagerFactory entityManagerFactory,
+                                 UserSuggestIndex suggestIndex,
+                                 EmailBloomFilter emailFilter) {
+        this.userCache = userCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.suggestIndex = suggestIndex;
+        this.emailFilter = emailFilter;
+        changeFeed.onExternalChange(this::apply);
+    }
+
+    void apply(UserChange change) {
+        long userId = change.getUserId();
+        userCache.evict(userId);
+        jakarta.persistence.Cache secondLevel = entityManagerFactory.getCache();
+        secondLevel.evict(User.class, userId);
+        if (change.getOperation() != Operation.CREATED) {
+            secondLevel.unwrap(Cache.class).evictNaturalIdData(User.class);
+        }
+
+        // The entry carries the user's current state, null once deleted.
+        UserResponse user = change.getUser();
+        if (user == null) {
+            suggestIndex.remove(userId);
+        } else {
+            suggestIndex.upsert(userId, user.getName(), user.getEmail());
+            emailFilter.put(user.getEmail());
+        }
+    }
+}
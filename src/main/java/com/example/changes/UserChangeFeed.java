@@ -0,0 +1,573 @@
+package com.example.changes;
+
+import com.example.dto.UserChange;
+import com.example.dto.UserChange.Operation;
+import com.example.dto.UserChangePage;
+import com.example.exception.GoneException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Change feed over the {@code user_changes} outbox. Writers call {@link #record} in the
+ * transaction that changes the user, so an entry exists exactly when the change committed;
+ * the native {@code UserDao} and the reactive repository insert the same rows in their own
+ * write statements or transactions.
+ * A sequencer thread numbers committed entries ({@link UserChangeLog#sequence(int)}) right
+ * after a local commit, or every {@code app.changes.poll-interval} for other instances'
+ * writes, and then wakes long-poll waiters and Server-Sent Events subscribers. All
+ * replies are read from the table, so any instance can serve any consumer.
+ * <p>
+ * Every event stream has its own sender (a virtual thread), so a slow client only holds
+ * up itself. The sequencer reads each batch of new changes once and offers it to every
+ * stream's queue of {@code app.changes.subscriber-buffer} events. A stream whose queue
+ * overflows is disconnected, and the client resumes from {@code Last-Event-ID}. While a
+ * new stream catches up from the table, overflow only drops events it reads anyway.
+ * <p>
+ * Changes this instance did not {@link #record} itself (other instances, the native
+ * {@code UserDao}, the reactive process) are also handed to the
+ * {@link #onExternalChange} listeners, so in-process caches and indexes follow them.
+ * <p>
+ * Entries older than {@code app.changes.retention} are deleted on
+ * {@code app.changes.compaction-cron}, at most {@code compaction-batch-size} per statement
+ * and {@code compaction-max-batches} statements per run. A consumer asking for a position
+ * that was compacted gets 410 and must resynchronize from {@code GET /api/users}.
+ */
+@Component
+public class UserChangeFeed {
+    private static final Logger logger = LogManager.getLogger(UserChangeFeed.class);
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_WAIT_SECONDS = 60;
+    private static final int SEQUENCE_BATCH = 10_000;
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+    private static final Outgoing HEARTBEAT = new Outgoing(null);
+    // Only costs redundant invalidations if exceeded, e.g. while the sequencer is failing.
+    private static final int MAX_LOCAL_WRITES = 100_000;
+
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final int compactionBatchSize;
+    private final int compactionMaxBatches;
+    private final int subscriberBuffer;
+    private final UserChangeLog log;
+    private final TransactionTemplate transaction;
+    private final Counter compacted;
+    private final Counter dropped;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition committed = lock.newCondition();
+    private boolean wakeRequested;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Queue<Subscriber> subscribers = new ConcurrentLinkedQueue<>();
+    // Committed local records not published yet; a published change found here is not external.
+    private final Set<LocalWrite> localWrites = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<UserChange>> externalChangeListeners = new CopyOnWriteArrayList<>();
+    // One thread per event stream, so each is written in order; long-poll replies run here too.
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("user-changes-sender-", 0).factory());
+
+    private Thread sequencer;
+    private volatile boolean running;
+    private volatile long latestSeq;
+    // Highest seq offered to the subscribers' queues; only touched on the sequencer thread.
+    private long publishedSeq;
+
+    public UserChangeFeed(@Value("${app.changes.enabled:true}") boolean enabled,
+                          @Value("${app.changes.poll-interval:PT0.2S}") Duration pollInterval,
+                          @Value("${app.changes.retention:P7D}") Duration retention,
+                          @Value("${app.changes.compaction-batch-size:10000}") int compactionBatchSize,
+                          @Value("${app.changes.compaction-max-batches:100}") int compactionMaxBatches,
+                          @Value("${app.changes.subscriber-buffer:1000}") int subscriberBuffer,
+                          UserChangeLog log,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.compactionBatchSize = compactionBatchSize;
+        this.compactionMaxBatches = compactionMaxBatches;
+        this.subscriberBuffer = subscriberBuffer;
+        this.log = log;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.compacted = Counter.builder("users.changes.compacted")
+                .description("Change feed entries deleted by compaction")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("users.changes.dropped")
+                .description("Change feed event streams disconnected for falling too far behind")
+                .register(meterRegistry);
+        Gauge.builder("users.changes.latest", this, feed -> (double) feed.latestSeq)
+                .description("Highest sequence number published by this instance")
+                .register(meterRegistry);
+        Gauge.builder("users.changes.subscribers", subscribers, Queue::size)
+                .description("Open change feed event streams")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSequencer() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        sequencer = new Thread(this::sequenceLoop, "user-changes-sequencer");
+        sequencer.setDaemon(true);
+        sequencer.start();
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        running = false;
+        if (sequencer != null) {
+            wake();
+            sequencer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a change in the caller's transaction; {@code version} is the user's version
+     * after the change, {@code null} for deletes.
+     */
+    public void record(long userId, Operation operation, Long version) {
+        if (enabled) {
+            log.record(userId, operation, version);
+            wakeAfterCommit(List.of(new LocalWrite(userId, operation, version)));
+        }
+    }
+
+    /**
+     * Batched {@link #record}; {@code versions} may be empty (e.g. for deletes).
+     */
+    public void recordAll(Collection<Long> userIds, Operation operation, Map<Long, Long> versions) {
+        if (enabled && !userIds.isEmpty()) {
+            log.recordAll(userIds, operation, versions);
+            wakeAfterCommit(userIds.stream()
+                    .map(userId -> new LocalWrite(userId, operation, versions.get(userId)))
+                    .toList());
+        }
+    }
+
+    /**
+     * Registers a listener for published changes that were not {@link #record}ed by this
+     * instance. It runs on the sequencer thread, in feed order, and must not block.
+     */
+    public void onExternalChange(Consumer<UserChange> listener) {
+        externalChangeListeners.add(listener);
+    }
+
+    /**
+     * Lets the sequencer run now instead of at the next poll, for writers that commit
+     * outside a Spring transaction.
+     */
+    public void wake() {
+        lock.lock();
+        try {
+            wakeRequested = true;
+            committed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} changes after {@code since}, oldest first.
+     *
+     * @throws GoneException if changes after {@code since} have been compacted
+     */
+    public UserChangePage page(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        rejectIfCompacted(since);
+        List<UserChange> changes = log.since(since, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        List<UserChange> page = hasMore ? changes.subList(0, limit) : changes;
+        long lastSeq = page.isEmpty() ? since : page.get(page.size() - 1).getSeq();
+        return new UserChangePage(page, lastSeq, hasMore);
+    }
+
+    /**
+     * Long poll: answers at once if there are changes after {@code since}, otherwise when
+     * the next one is published or, empty, after {@code waitSeconds}.
+     */
+    public DeferredResult<UserChangePage> poll(long since, int limit, int waitSeconds) {
+        if (waitSeconds < 0 || waitSeconds > MAX_WAIT_SECONDS) {
+            throw new IllegalArgumentException("wait must be between 0 and " + MAX_WAIT_SECONDS + " seconds");
+        }
+        UserChangePage page = page(since, limit);
+        DeferredResult<UserChangePage> result = new DeferredResult<>(TimeUnit.SECONDS.toMillis(waitSeconds));
+        if (!page.getChanges().isEmpty() || waitSeconds == 0 || !running) {
+            result.setResult(page);
+            return result;
+        }
+
+        Waiter waiter = new Waiter(since, limit, result);
+        result.onTimeout(() -> result.setResult(new UserChangePage(List.of(), since, false)));
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+        // Published between the read above and registering: would otherwise wait it out.
+        if (latestSeq > since && waiters.remove(waiter)) {
+            senders.execute(() -> reply(waiter));
+        }
+        return result;
+    }
+
+    /**
+     * Event stream of every change after {@code since}, one {@code change} event per entry
+     * with the sequence number as event id, so a reconnecting client resumes from
+     * {@code Last-Event-ID}.
+     */
+    public SseEmitter subscribe(long since) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        rejectIfCompacted(since);
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber = new Subscriber(emitter, since, subscriberBuffer);
+        emitter.onCompletion(() -> disconnect(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> disconnect(subscriber));
+        // Registered before the catch-up read, so every change it does not see is queued.
+        subscribers.add(subscriber);
+        subscriber.sender = senders.submit(() -> stream(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Keeps idle event streams from being cut by proxies and notices closed ones.
+     */
+    @Scheduled(fixedDelayString = "${app.changes.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> enqueue(subscriber, HEARTBEAT));
+    }
+
+    @Scheduled(cron = "${app.changes.compaction-cron:0 45 * * * *}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        long removed = 0;
+        for (int batch = 0; batch < compactionMaxBatches; batch++) {
+            int deleted = log.compact(cutoff, compactionBatchSize);
+            removed += deleted;
+            if (deleted < compactionBatchSize) {
+                break;
+            }
+        }
+        compacted.increment(removed);
+        if (removed > 0) {
+            logger.info("Compacted {} change feed entries older than {}", removed, retention);
+        }
+    }
+
+    private void wakeAfterCommit(List<LocalWrite> writes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedLocally(writes);
+                }
+            });
+        } else {
+            committedLocally(writes);
+        }
+    }
+
+    private void committedLocally(List<LocalWrite> writes) {
+        if (localWrites.size() + writes.size() > MAX_LOCAL_WRITES) {
+            localWrites.clear();
+        }
+        localWrites.addAll(writes);
+        wake();
+    }
+
+    private void rejectIfCompacted(long since) {
+        long compactedThrough = log.compactedThrough();
+        if (since < compactedThrough) {
+            throw new GoneException("Changes through " + compactedThrough + " have been compacted; "
+                    + "resynchronize from /api/users and continue from since=" + latestKnownSeq());
+        }
+    }
+
+    private long latestKnownSeq() {
+        return running ? latestSeq : log.latestSeq();
+    }
+
+    private void sequenceLoop() {
+        long backoffMillis = 100;
+        latestSeq = log.latestSeq();
+        publishedSeq = latestSeq;
+        while (running) {
+            try {
+                awaitWake();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                Integer numbered;
+                do {
+                    numbered = transaction.execute(status -> log.sequence(SEQUENCE_BATCH));
+                } while (numbered != null && numbered == SEQUENCE_BATCH);
+                long latest = log.latestSeq();
+                if (latest > latestSeq) {
+                    latestSeq = latest;
+                }
+                if (latest > publishedSeq) {
+                    publish(latest);
+                }
+                backoffMillis = 100;
+            } catch (RuntimeException e) {
+                logger.error("Sequencing changes failed; retrying in {} ms", backoffMillis, e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void awaitWake() throws InterruptedException {
+        lock.lock();
+        try {
+            if (!wakeRequested) {
+                committed.await(pollInterval.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            wakeRequested = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the waiters to the senders, offers the changes up to {@code latest} to every
+     * subscriber's queue and passes external ones to the listeners, reading them once for
+     * all of them.
+     */
+    private void publish(long latest) {
+        for (Waiter waiter : waiters) {
+            if (waiter.since < latest && waiters.remove(waiter)) {
+                senders.execute(() -> reply(waiter));
+            }
+        }
+        if (subscribers.isEmpty() && externalChangeListeners.isEmpty()) {
+            // A subscriber registering now reads these from the table.
+            publishedSeq = latest;
+            return;
+        }
+        while (publishedSeq < latest) {
+            List<UserChange> changes = log.since(publishedSeq, MAX_LIMIT);
+            if (changes.isEmpty()) {
+                return;
+            }
+            for (UserChange change : changes) {
+                Outgoing event = new Outgoing(change);
+                subscribers.forEach(subscriber -> enqueue(subscriber, event));
+                if (!localWrites.remove(new LocalWrite(change.getUserId(), change.getOperation(), change.getVersion()))) {
+                    notifyExternalChange(change);
+                }
+                publishedSeq = change.getSeq();
+            }
+        }
+    }
+
+    private void notifyExternalChange(UserChange change) {
+        for (Consumer<UserChange> listener : externalChangeListeners) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException e) {
+                logger.warn("Applying external change {} of user {} failed", change.getSeq(), change.getUserId(), e);
+            }
+        }
+    }
+
+    private void reply(Waiter waiter) {
+        try {
+            waiter.result.setResult(page(waiter.since, waiter.limit));
+        } catch (RuntimeException e) {
+            waiter.result.setErrorResult(e);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Outgoing event) {
+        if (subscriber.queue.offer(event)) {
+            return;
+        }
+        synchronized (subscriber) {
+            if (subscriber.catchingUp) {
+                subscriber.missed = true;
+                return;
+            }
+        }
+        if (subscribers.remove(subscriber)) {
+            subscriber.overflowed = true;
+            dropped.increment();
+            logger.warn("Disconnecting a change feed event stream {} events behind", subscriberBuffer);
+        }
+    }
+
+    /**
+     * The subscriber's sender: catches up from the table, then sends what the sequencer
+     * queues until the stream closes or overflows.
+     */
+    private void stream(Subscriber subscriber) {
+        try {
+            if (!catchUp(subscriber)) {
+                return;
+            }
+            while (true) {
+                Outgoing next = subscriber.queue.take();
+                if (subscriber.overflowed) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                UserChange change = next.change();
+                if (change == null) {
+                    if (!send(subscriber, SseEmitter.event().comment("heartbeat"))) {
+                        return;
+                    }
+                } else if (change.getSeq() > subscriber.position) {
+                    if (!send(subscriber, SseEmitter.event().id(Long.toString(change.getSeq())).name("change").data(change))) {
+                        return;
+                    }
+                    subscriber.position = change.getSeq();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Disconnected, or shutting down.
+        } catch (RuntimeException e) {
+            logger.warn("Streaming changes failed", e);
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Sends everything in the table after the subscriber's position; repeats if its queue
+     * overflowed meanwhile, as the dropped events may be past what was read. Returns false
+     * if the stream ended.
+     */
+    private boolean catchUp(Subscriber subscriber) {
+        if (subscriber.position < log.compactedThrough()) {
+            // Fell behind by more than the retention; same answer as the 410 of page().
+            send(subscriber, SseEmitter.event().name("gone").data("resynchronize from /api/users"));
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+            return false;
+        }
+        while (true) {
+            List<UserChange> changes = log.since(subscriber.position, MAX_LIMIT);
+            for (UserChange change : changes) {
+                if (!send(subscriber, SseEmitter.event().id(Long.toString(change.getSeq())).name("change").data(change))) {
+                    return false;
+                }
+                subscriber.position = change.getSeq();
+            }
+            if (changes.size() < MAX_LIMIT) {
+                synchronized (subscriber) {
+                    if (!subscriber.missed) {
+                        subscriber.catchingUp = false;
+                        return true;
+                    }
+                    subscriber.missed = false;
+                }
+            }
+        }
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container completes the emitter.
+            subscribers.remove(subscriber);
+            return false;
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        Future<?> sender = subscriber.sender;
+        if (sender != null) {
+            sender.cancel(true);
+        }
+    }
+
+    private record Waiter(long since, int limit, DeferredResult<UserChangePage> result) {
+    }
+
+    private record LocalWrite(long userId, Operation operation, Long version) {
+    }
+
+    /**
+     * A queued event: a change, or a heartbeat when {@code change} is null.
+     */
+    private record Outgoing(UserChange change) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Outgoing> queue;
+        private volatile Future<?> sender;
+        private volatile boolean overflowed;
+        // Guarded by this: whether the sender still reads the table, and whether the queue
+        // overflowed while it did.
+        private boolean catchingUp = true;
+        private boolean missed;
+        // Only touched on the sender.
+        private long position;
+
+        Subscriber(SseEmitter emitter, long position, int buffer) {
+            this.emitter = emitter;
+            this.position = position;
+            this.queue = new ArrayBlockingQueue<>(buffer);
+        }
+    }
+}
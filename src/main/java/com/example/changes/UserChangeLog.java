@@ -0,0 +1,122 @@
+package com.example.changes;
+
+import com.example.dto.UserChange;
+import com.example.dto.UserChange.Operation;
+import com.example.dto.UserResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL over the {@code user_changes} outbox (see schema.sql). Writes join the caller's
+ * transaction.
+ * <p>
+ * Rows are numbered by {@link #sequence(int)} only after they commit, under a
+ * transaction-scoped advisory lock, so numbering runs one at a time across instances and
+ * each run's numbers are above everything already visible. A {@code seq > since} reader
+ * therefore never misses a change that committed late, which numbering at insert time
+ * (a plain sequence default) would allow.
+ */
+@Repository
+public class UserChangeLog {
+    // Arbitrary, stable key for pg_try_advisory_xact_lock: "user_changes" in ASCII.
+    private static final long SEQUENCER_LOCK = 0x757365725f63686eL;
+
+    private static final String RECORD = "INSERT INTO user_changes (user_id, operation, version, changed_at) " +
+            "VALUES (?, ?, ?, LOCALTIMESTAMP)";
+    // nextval in the outer SELECT runs after its ORDER BY, so numbers follow insertion order.
+    private static final String SEQUENCE = "WITH numbered AS (" +
+            "SELECT id, nextval('user_changes_seq') AS seq FROM (" +
+            "SELECT id FROM user_changes WHERE seq IS NULL ORDER BY id LIMIT ?) pending ORDER BY id) " +
+            "UPDATE user_changes c SET seq = n.seq FROM numbered n WHERE c.id = n.id";
+    private static final String SINCE = "SELECT c.seq, c.user_id, c.operation, c.version, c.changed_at, " +
+            "u.id AS current_id, u.name, u.email, u.age, u.created_at, u.updated_at, u.version AS current_version " +
+            "FROM user_changes c LEFT JOIN users u ON u.id = c.user_id " +
+            "WHERE c.seq > ? ORDER BY c.seq LIMIT ?";
+    private static final String COMPACT = "WITH removed AS (" +
+            "DELETE FROM user_changes WHERE seq IN (" +
+            "SELECT seq FROM user_changes WHERE seq IS NOT NULL AND changed_at < ? ORDER BY seq LIMIT ?) " +
+            "RETURNING seq) " +
+            "UPDATE user_changes_compaction SET compacted_through = GREATEST(compacted_through, " +
+            "(SELECT coalesce(max(seq), 0) FROM removed)) RETURNING (SELECT count(*) FROM removed)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserChangeLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    void record(long userId, Operation operation, Long version) {
+        jdbcTemplate.update(RECORD, userId, operation.name(), version);
+    }
+
+    /**
+     * One batched insert for many users; {@code versions} may be empty or lack users.
+     */
+    void recordAll(Collection<Long> userIds, Operation operation, Map<Long, Long> versions) {
+        jdbcTemplate.batchUpdate(RECORD, userIds.stream()
+                .map(userId -> new Object[]{userId, operation.name(), versions.get(userId)})
+                .toList());
+    }
+
+    /**
+     * Numbers up to {@code limit} committed rows; must run in a transaction. Returns how
+     * many were numbered, or -1 if another instance is numbering.
+     */
+    int sequence(int limit) {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                SEQUENCER_LOCK);
+        if (!Boolean.TRUE.equals(locked)) {
+            return -1;
+        }
+        return jdbcTemplate.update(SEQUENCE, limit);
+    }
+
+    long latestSeq() {
+        // Compaction may have emptied the table.
+        Long latest = jdbcTemplate.queryForObject("SELECT GREATEST((SELECT max(seq) FROM user_changes), " +
+                "(SELECT compacted_through FROM user_changes_compaction))", Long.class);
+        return latest == null ? 0 : latest;
+    }
+
+    List<UserChange> since(long since, int limit) {
+        return jdbcTemplate.query(SINCE, (rs, row) -> change(rs), since, limit);
+    }
+
+    long compactedThrough() {
+        Long through = jdbcTemplate.queryForObject("SELECT compacted_through FROM user_changes_compaction", Long.class);
+        return through == null ? 0 : through;
+    }
+
+    /**
+     * Deletes up to {@code limit} numbered rows older than {@code cutoff}, lowest first,
+     * and moves the compaction mark past them. Returns how many were deleted.
+     */
+    int compact(LocalDateTime cutoff, int limit) {
+        Long removed = jdbcTemplate.queryForObject(COMPACT, Long.class, cutoff, limit);
+        return removed == null ? 0 : removed.intValue();
+    }
+
+    private static UserChange change(ResultSet rs) throws SQLException {
+        Operation operation = Operation.valueOf(rs.getString("operation"));
+        UserResponse user = null;
+        if (operation != Operation.DELETED && rs.getObject("current_id") != null) {
+            user = new UserResponse();
+            user.setId(rs.getLong("current_id"));
+            user.setName(rs.getString("name"));
+            user.setEmail(rs.getString("email"));
+            user.setAge(rs.getObject("age", Integer.class));
+            user.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+            user.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+            user.setVersion(rs.getObject("current_version", Long.class));
+        }
+        return new UserChange(rs.getLong("seq"), rs.getLong("user_id"), operation,
+                rs.getObject("version", Long.class), rs.getObject("changed_at", LocalDateTime.class), user);
+    }
+}
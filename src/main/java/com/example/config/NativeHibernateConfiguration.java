@@ -0,0 +1,41 @@
+package com.example.config;
+
+import com.example.changes.UserChangeFeed;
+import com.example.util.HibernateUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+
+/**
+ * When the native Hibernate path runs inside the Spring application it shares the
+ * Spring Boot connection pool instead of opening a second one, and always shares the
+ * second-level cache manager, the meter registry and, when enabled, the change feed.
+ */
+@Configuration
+public class NativeHibernateConfiguration {
+
+    public NativeHibernateConfiguration(DataSource dataSource,
+                                        CacheManager hibernateCacheManager,
+                                        MeterRegistry meterRegistry,
+                                        UserChangeFeed changeFeed,
+                                        @Value("${app.native-hibernate.share-pool:true}") boolean sharePool) {
+        if (sharePool) {
+            HibernateUtil.useDataSource(dataSource);
+        }
+        HibernateUtil.useCacheManager(hibernateCacheManager);
+        HibernateUtil.useMeterRegistry(meterRegistry);
+        if (changeFeed.isEnabled()) {
+            HibernateUtil.useChangeFeed(changeFeed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        HibernateUtil.useChangeFeed(null);
+        HibernateUtil.shutdown();
+    }
+}
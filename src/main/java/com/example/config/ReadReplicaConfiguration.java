@@ -0,0 +1,79 @@
+package com.example.config;
+
+import com.example.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting, on when {@code app.datasource.replicas.urls} lists at least one
+ * replica. Replaces Spring Boot's single pool with the primary pool (same
+ * {@code spring.datasource.*} settings), one pool per replica with the primary's pool
+ * settings but its own short connection timeout, and a {@link ReplicaRoutingDataSource}
+ * behind a lazy proxy as the {@code DataSource} everything else injects.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+public class ReadReplicaConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${app.datasource.replicas.urls}") List<String> urls,
+            @Value("${app.datasource.replicas.username:${spring.datasource.username}}") String username,
+            @Value("${app.datasource.replicas.password:${spring.datasource.password}}") String password,
+            @Value("${app.datasource.replicas.selection:round-robin}") String selection,
+            @Value("${app.datasource.replicas.max-lag:PT10S}") Duration maxLag,
+            @Value("${app.datasource.replicas.read-your-writes-window:PT5S}") Duration readYourWritesWindow,
+            @Value("${app.datasource.replicas.connection-timeout:PT0.5S}") Duration connectionTimeout,
+            @Value("${app.datasource.replicas.initialization-fail-timeout:-1}") long initializationFailTimeout,
+            MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName(primaryDataSource.getPoolName() + "-replica-" + i);
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setReadOnly(true);
+            // Until the health check marks an unreachable replica down, every read routed to
+            // it waits this long before falling back to the primary.
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setValidationTimeout(Math.min(config.getValidationTimeout(), connectionTimeout.toMillis()));
+            // By default a replica that is down at startup does not keep the service from starting.
+            config.setInitializationFailTimeout(initializationFailTimeout);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                ReplicaRoutingDataSource.Selection.fromProperty(selection), maxLag, readYourWritesWindow,
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
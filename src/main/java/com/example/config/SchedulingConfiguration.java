@@ -0,0 +1,13 @@
+package com.example.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs ({@code UserStats} refresh and reconciliation). Kept off the application
+ * class so test slices do not start a scheduler.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
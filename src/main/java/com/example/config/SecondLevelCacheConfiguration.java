@@ -0,0 +1,44 @@
+package com.example.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * One Ehcache-backed JCache manager for Hibernate's second-level cache, handed to the
+ * Spring Data {@code EntityManagerFactory} here and to the native SessionFactory by
+ * {@link NativeHibernateConfiguration}. Both factories therefore read and invalidate the
+ * same {@code User} regions, and a write through either path is seen by the other.
+ * <p>
+ * The manager is registered under a URI unique to this context: JCache hands out one
+ * manager per URI, and two contexts in a JVM (tests against different databases) must not
+ * share cached rows.
+ */
+@Configuration
+public class SecondLevelCacheConfiguration {
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.l2-cache.config:classpath:ehcache.xml}") Resource config)
+            throws IOException {
+        ClassLoader classLoader = getClass().getClassLoader();
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName(), classLoader);
+        return provider.getCacheManager(URI.create("urn:user-service:l2:" + UUID.randomUUID()),
+                new XmlConfiguration(config.getURL(), classLoader));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
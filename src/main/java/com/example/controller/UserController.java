@@ -1,35 +1,223 @@
 package com.example.controller;
 
+import com.example.changes.UserChangeFeed;
+import com.example.dto.BatchCreateResponse;
+import com.example.dto.BulkOperationResult;
+import com.example.dto.CursorPage;
+import com.example.dto.UserChangePage;
+import com.example.dto.UserField;
+import com.example.dto.ImportReport;
+import com.example.dto.UserIngestStatus;
+import com.example.dto.UserFilter;
+import com.example.dto.UserLookupRequest;
+import com.example.dto.UserLookupResponse;
+import com.example.dto.UserPatchRequest;
 import com.example.dto.UserRequest;
+import com.example.dto.UserSearchCriteria;
+import com.example.dto.UserStatsResponse;
 import com.example.dto.UserResponse;
+import com.example.dto.UserSuggestion;
+import com.example.dto.UserVersion;
+import com.example.ingest.UserIngestor;
+import com.example.search.UserSuggestIndex;
+import com.example.service.UserBulkService;
+import com.example.service.UserImportService;
 import com.example.service.UserService;
+import com.example.stats.UserStats;
+import com.example.util.VersionTags;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserBulkService userBulkService;
+    private final UserSuggestIndex userSuggestIndex;
+    private final UserStats userStats;
+    private final UserIngestor userIngestor;
+    private final UserChangeFeed userChangeFeed;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * In write-behind mode the validated signup is only logged locally and answered with
+     * 202 and a tracking id; {@code GET /api/users/ingest/{trackingId}} reports the outcome.
+     */
     @PostMapping
-    public ResponseEntity<UserResponse> createUser(@Valid @RequestBody UserRequest request) {
+    public ResponseEntity<?> createUser(@Valid @RequestBody UserRequest request) {
+        if (userIngestor.isEnabled()) {
+            UserIngestStatus accepted = userIngestor.accept(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/users/ingest/" + accepted.getTrackingId()))
+                    .body(accepted);
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(userService.createUser(request));
     }
 
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<UserIngestStatus> getIngestStatus(@PathVariable UUID trackingId) {
+        return ResponseEntity.ok(userIngestor.status(trackingId));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateResponse> createUsers(@RequestBody List<UserRequest> requests) {
+        return ResponseEntity.ok(userService.createUsers(requests));
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportReport> importUsers(
+            InputStream csv,
+            @RequestParam(defaultValue = "true") boolean header) {
+        return ResponseEntity.ok(userImportService.importCsv(csv, header));
+    }
+
+    /**
+     * Conditional requests ({@code If-None-Match}/{@code If-Modified-Since}) are first
+     * checked against the user's version alone and answered with 304 without loading or
+     * serializing the user. Unconditional requests skip that check and its extra query.
+     * With {@code fields} only those properties are selected and written; such sparse
+     * responses carry no validators.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<?> getUserById(@PathVariable Long id,
+                                         @RequestParam(required = false) String fields,
+                                         WebRequest request) {
+        if (fields != null) {
+            return ResponseEntity.ok(userService.getUserFields(id, UserField.parse(fields)));
+        }
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            UserVersion current = userService.getUserVersion(id);
+            if (current.getVersion() != null && request.checkNotModified(
+                    VersionTags.toETag(current.getVersion()), epochMillis(current.getLastModified()))) {
+                return null;
+            }
+        }
+        UserResponse user = userService.getUserById(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (user.getVersion() != null) {
+            response.eTag(VersionTags.toETag(user.getVersion()));
+        }
+        LocalDateTime lastModified = user.getUpdatedAt() != null ? user.getUpdatedAt() : user.getCreatedAt();
+        if (lastModified != null) {
+            response.lastModified(epochMillis(lastModified));
+        }
+        return response.body(user);
     }
 
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<CursorPage<?>> getUsers(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(userService.getUsers(limit, after, sort, UserField.parse(fields)));
+        }
+        return ResponseEntity.ok(userService.getUsers(limit, after, sort));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<UserResponse>> searchUsers(
+            UserSearchCriteria criteria,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(userService.searchUsers(criteria, limit, after));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<UserSuggestion>> suggestUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userSuggestIndex.suggest(q, limit));
+    }
+
+    /**
+     * Served from in-memory counters; {@code approximate=true} takes the total from
+     * PostgreSQL planner statistics instead. Neither reads the users table.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<UserStatsResponse> getStats(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "false") boolean approximate) {
+        return ResponseEntity.ok(userStats.snapshot(days, approximate));
+    }
+
+    /**
+     * Changes after {@code since}, oldest first; the reply's {@code lastSeq} is the next
+     * {@code since}. With {@code wait} (seconds) and nothing new, the request is held until
+     * a change is published or the wait runs out. 410 if {@code since} was compacted.
+     */
+    @GetMapping("/changes")
+    public DeferredResult<UserChangePage> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int wait) {
+        return userChangeFeed.poll(since, limit, wait);
+    }
+
+    /**
+     * The same feed as Server-Sent Events; a reconnecting client resumes from
+     * {@code Last-Event-ID}.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return userChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<UserResponse> getUserByEmail(@RequestParam String email) {
+        return ResponseEntity.ok(userService.getUserByEmail(email));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<UserLookupResponse<?>> getUsersByIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(lookup(ids, fields));
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<UserLookupResponse<?>> lookupUsers(
+            @Valid @RequestBody UserLookupRequest request,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(lookup(request.getIds(), fields));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = out -> {
+            try {
+                userService.exportUsers(user -> writeLine(out, user));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PutMapping("/{id}")
@@ -39,9 +227,50 @@ public class UserController {
         return ResponseEntity.ok(userService.updateUser(id, request));
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<UserResponse> patchUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UserPatchRequest request) {
+        UserResponse user = userService.patchUser(id, request, VersionTags.fromIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(VersionTags.toETag(user.getVersion())).body(user);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
+
+    @DeleteMapping
+    public ResponseEntity<BulkOperationResult> deleteUsers(UserFilter filter) {
+        return ResponseEntity.ok(userBulkService.deleteUsers(filter));
+    }
+
+    @PatchMapping
+    public ResponseEntity<BulkOperationResult> updateUsers(
+            UserFilter filter,
+            @Valid @RequestBody UserPatchRequest changes) {
+        return ResponseEntity.ok(userBulkService.updateUsers(filter, changes));
+    }
+
+    private UserLookupResponse<?> lookup(List<Long> ids, String fields) {
+        return fields != null
+                ? userService.getUsersByIds(ids, UserField.parse(fields))
+                : userService.getUsersByIds(ids);
+    }
+
+    // Timestamps are written from the JVM clock as local date-times.
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void writeLine(OutputStream out, UserResponse user) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(user));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
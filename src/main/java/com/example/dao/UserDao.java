@@ -1,6 +1,7 @@
 package com.example.dao;
 
 import com.example.entity.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +11,9 @@ public interface UserDao {
     List<User> findAll();
     void update(User user);
     void delete(Long id);
-}
\ No newline at end of file
+
+    void saveAll(Collection<User> users);
+    List<User> findAllById(Collection<Long> ids);
+    void updateAll(Collection<User> users);
+    int deleteAll(Collection<Long> ids);
+}
@@ -1,21 +1,52 @@
 package com.example.dao;
 
+import com.example.changes.UserChangeFeed;
+import com.example.dto.UserChange.Operation;
 import com.example.entity.User;
 import com.example.util.HibernateUtil;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 import org.hibernate.query.Query;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+/**
+ * The single-entity methods each run in their own session and transaction. The
+ * collection variants run in one session and transaction, with JDBC batching and a
+ * flush/clear every {@link #BATCH_SIZE} entities to keep the persistence context bounded.
+ * <p>
+ * When {@link HibernateUtil#getChangeFeed()} is set, every write also inserts its
+ * {@code user_changes} rows in the same transaction, the way {@code UserService} does,
+ * and wakes the feed's sequencer after commit.
+ */
 public class UserDaoImpl implements UserDao {
+    private static final int BATCH_SIZE = 50;
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    // Reads the version back from the flushed row, so it is the one the change produced.
+    private static final String RECORD = "INSERT INTO user_changes (user_id, operation, version, changed_at) " +
+            "SELECT id, :operation, version, LOCALTIMESTAMP FROM users WHERE id IN (:ids)";
+    private static final String RECORD_DELETED = "INSERT INTO user_changes (user_id, operation, version, changed_at) " +
+            "VALUES (:id, 'DELETED', NULL, LOCALTIMESTAMP)";
+    // Records exactly the rows this statement deleted; the count is the number deleted.
+    private static final String DELETE_RECORDED = "WITH deleted AS (DELETE FROM users WHERE id IN (:ids) RETURNING id) " +
+            "INSERT INTO user_changes (user_id, operation, version, changed_at) " +
+            "SELECT id, 'DELETED', NULL, LOCALTIMESTAMP FROM deleted";
+
     @Override
     public void save(User user) {
+        UserChangeFeed feed = changeFeed();
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
             session.persist(user);
+            record(session, feed, List.of(user.getId()), Operation.CREATED);
             transaction.commit();
+            wake(feed);
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
@@ -45,11 +76,14 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public void update(User user) {
+        UserChangeFeed feed = changeFeed();
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
             session.merge(user);
+            record(session, feed, List.of(user.getId()), Operation.UPDATED);
             transaction.commit();
+            wake(feed);
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
@@ -60,14 +94,25 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public void delete(Long id) {
+        UserChangeFeed feed = changeFeed();
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
             User user = session.get(User.class, id);
             if (user != null) {
                 session.remove(user);
+                if (feed != null) {
+                    session.flush();
+                    session.createNativeQuery(RECORD_DELETED)
+                            .addSynchronizedQuerySpace("user_changes")
+                            .setParameter("id", id)
+                            .executeUpdate();
+                }
             }
             transaction.commit();
+            if (user != null) {
+                wake(feed);
+            }
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
@@ -75,4 +120,168 @@ public class UserDaoImpl implements UserDao {
             throw new RuntimeException("Error deleting user with id: " + id, e);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void saveAll(Collection<User> users) {
+        UserChangeFeed feed = changeFeed();
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            session.setJdbcBatchSize(BATCH_SIZE);
+            transaction = session.beginTransaction();
+            List<Long> ids = new ArrayList<>(users.size());
+            for (User user : users) {
+                session.persist(user);
+                ids.add(user.getId());
+                if (ids.size() % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            record(session, feed, ids, Operation.CREATED);
+            transaction.commit();
+            wake(feed);
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw new RuntimeException("Error saving " + users.size() + " users", e);
+        }
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            // multiLoad keeps the caller's order, resolves ids with chunked IN queries and
+            // returns null for ids that do not exist.
+            return session.byMultipleIds(User.class)
+                    .withBatchSize(IN_CLAUSE_CHUNK)
+                    .multiLoad(new ArrayList<>(ids))
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            throw new RuntimeException("Error finding " + ids.size() + " users by id", e);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<User> users) {
+        UserChangeFeed feed = changeFeed();
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            session.setJdbcBatchSize(BATCH_SIZE);
+            transaction = session.beginTransaction();
+            List<User> chunk = new ArrayList<>(BATCH_SIZE);
+            for (User user : users) {
+                chunk.add(user);
+                if (chunk.size() == BATCH_SIZE) {
+                    mergeChunk(session, chunk);
+                }
+            }
+            mergeChunk(session, chunk);
+            record(session, feed, users.stream().map(User::getId).filter(Objects::nonNull).collect(Collectors.toList()), Operation.UPDATED);
+            transaction.commit();
+            wake(feed);
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw new RuntimeException("Error updating " + users.size() + " users", e);
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Long> ids) {
+        UserChangeFeed feed = changeFeed();
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            int deleted = 0;
+            List<Long> chunk = new ArrayList<>(IN_CLAUSE_CHUNK);
+            for (Long id : ids) {
+                chunk.add(id);
+                if (chunk.size() == IN_CLAUSE_CHUNK) {
+                    deleted += deleteChunk(session, chunk, feed != null);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                deleted += deleteChunk(session, chunk, feed != null);
+            }
+            transaction.commit();
+            if (deleted > 0) {
+                wake(feed);
+            }
+            return deleted;
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw new RuntimeException("Error deleting " + ids.size() + " users", e);
+        }
+    }
+
+    /**
+     * Loads the chunk's current rows with one IN query first, so the merges below find
+     * them in the persistence context instead of issuing a SELECT per entity.
+     */
+    private void mergeChunk(Session session, List<User> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        session.byMultipleIds(User.class)
+                .multiLoad(chunk.stream().map(User::getId).collect(Collectors.toList()));
+        for (User user : chunk) {
+            session.merge(user);
+        }
+        session.flush();
+        session.clear();
+        chunk.clear();
+    }
+
+    private int deleteChunk(Session session, List<Long> chunk, boolean recordChanges) {
+        int deleted;
+        if (recordChanges) {
+            // Declaring users as affected evicts the User cache region like the HQL delete does.
+            deleted = session.createNativeQuery(DELETE_RECORDED)
+                    .addSynchronizedEntityClass(User.class)
+                    .addSynchronizedQuerySpace("user_changes")
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+        } else {
+            deleted = session.createMutationQuery("DELETE FROM User u WHERE u.id IN :ids")
+                    .setParameterList("ids", chunk)
+                    .executeUpdate();
+        }
+        chunk.clear();
+        return deleted;
+    }
+
+    /**
+     * Flushes the written users and records one change each, {@link #IN_CLAUSE_CHUNK} ids
+     * per statement; does nothing when the change feed is off.
+     */
+    private void record(Session session, UserChangeFeed feed, List<Long> ids, Operation operation) {
+        if (feed == null || ids.isEmpty()) {
+            return;
+        }
+        session.flush();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            session.createNativeQuery(RECORD)
+                    .addSynchronizedQuerySpace("user_changes")
+                    .setParameter("operation", operation.name())
+                    .setParameterList("ids", ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size())))
+                    .executeUpdate();
+        }
+    }
+
+    private static UserChangeFeed changeFeed() {
+        UserChangeFeed feed = HibernateUtil.getChangeFeed();
+        return feed != null && feed.isEnabled() ? feed : null;
+    }
+
+    private static void wake(UserChangeFeed feed) {
+        if (feed != null) {
+            feed.wake();
+        }
+    }
+}
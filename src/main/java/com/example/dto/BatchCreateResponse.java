@@ -0,0 +1,20 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class BatchCreateResponse {
+    private final int created;
+    private final int failed;
+    private final List<BatchItemResult> results;
+
+    public BatchCreateResponse(List<BatchItemResult> results) {
+        this.results = results;
+        this.created = (int) results.stream()
+                .filter(result -> result.getStatus() == BatchItemResult.Status.CREATED)
+                .count();
+        this.failed = results.size() - created;
+    }
+}
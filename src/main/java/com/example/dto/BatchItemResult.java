@@ -0,0 +1,38 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class BatchItemResult {
+    public enum Status {
+        CREATED,
+        INVALID,
+        DUPLICATE_EMAIL
+    }
+
+    private final int index;
+    private final Status status;
+    private final Long id;
+    private final List<String> errors;
+
+    private BatchItemResult(int index, Status status, Long id, List<String> errors) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.errors = errors;
+    }
+
+    public static BatchItemResult created(int index, Long id) {
+        return new BatchItemResult(index, Status.CREATED, id, List.of());
+    }
+
+    public static BatchItemResult invalid(int index, List<String> errors) {
+        return new BatchItemResult(index, Status.INVALID, null, errors);
+    }
+
+    public static BatchItemResult duplicateEmail(int index, String email) {
+        return new BatchItemResult(index, Status.DUPLICATE_EMAIL, null, List.of("Email already exists: " + email));
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+@Getter
+public class BulkOperationResult {
+    private final long affected;
+    private final int chunks;
+    private final long elapsedMillis;
+
+    public BulkOperationResult(long affected, int chunks, long elapsedMillis) {
+        this.affected = affected;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+@Getter
+public class ImportRejection {
+    private final long line;
+    private final String email;
+    private final String reason;
+
+    public ImportRejection(long line, String email, String reason) {
+        this.line = line;
+        this.email = email;
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class ImportReport {
+    private final long staged;
+    private final long inserted;
+    private final long rejected;
+    private final long elapsedMillis;
+    private final long rowsPerSecond;
+    private final List<ImportRejection> rejections;
+
+    public ImportReport(long staged, long inserted, long elapsedMillis, List<ImportRejection> rejections) {
+        this.staged = staged;
+        this.inserted = inserted;
+        this.rejected = staged - inserted;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis > 0 ? staged * 1000 / elapsedMillis : staged;
+        this.rejections = rejections;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the change feed. {@code user} is the user's current state, not the state
+ * right after this change: {@code null} for deletes and for users deleted since, so a
+ * mirror can always apply the latest entry for a user as is.
+ */
+@Getter
+public class UserChange {
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final long seq;
+    private final long userId;
+    private final Operation operation;
+    private final Long version;
+    private final LocalDateTime changedAt;
+    private final UserResponse user;
+
+    public UserChange(long seq, long userId, Operation operation, Long version, LocalDateTime changedAt,
+                      UserResponse user) {
+        this.seq = seq;
+        this.userId = userId;
+        this.operation = operation;
+        this.version = version;
+        this.changedAt = changedAt;
+        this.user = user;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * {@code lastSeq} is the {@code since} for the next request; it equals the request's
+ * {@code since} when there were no changes.
+ */
+@Getter
+public class UserChangePage {
+    private final List<UserChange> changes;
+    private final long lastSeq;
+    private final boolean hasMore;
+
+    public UserChangePage(List<UserChange> changes, long lastSeq, boolean hasMore) {
+        this.changes = changes;
+        this.lastSeq = lastSeq;
+        this.hasMore = hasMore;
+    }
+}
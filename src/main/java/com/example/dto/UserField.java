@@ -0,0 +1,66 @@
+package com.example.dto;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Selectable user attributes for sparse fieldsets ({@code ?fields=id,email}). Each
+ * constant names both the JSON property and the {@code User} attribute it is read from,
+ * and declaration order is the order properties are written in.
+ */
+public enum UserField {
+    ID("id", UserResponse::getId),
+    NAME("name", UserResponse::getName),
+    EMAIL("email", UserResponse::getEmail),
+    AGE("age", UserResponse::getAge),
+    CREATED_AT("createdAt", UserResponse::getCreatedAt),
+    UPDATED_AT("updatedAt", UserResponse::getUpdatedAt),
+    VERSION("version", UserResponse::getVersion);
+
+    private final String attribute;
+    private final Function<UserResponse, Object> accessor;
+
+    UserField(String attribute, Function<UserResponse, Object> accessor) {
+        this.attribute = attribute;
+        this.accessor = accessor;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Parses a comma-separated, case-sensitive list of attribute names.
+     */
+    public static Set<UserField> parse(String fields) {
+        Set<UserField> parsed = EnumSet.noneOf(UserField.class);
+        for (String name : fields.split(",")) {
+            parsed.add(fromAttribute(name.trim()));
+        }
+        return parsed;
+    }
+
+    /**
+     * The requested fields of an already materialized user, e.g. a cache hit.
+     */
+    public static Map<String, Object> project(UserResponse user, Collection<UserField> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (UserField field : fields) {
+            projected.put(field.attribute, field.accessor.apply(user));
+        }
+        return projected;
+    }
+
+    private static UserField fromAttribute(String name) {
+        for (UserField field : values()) {
+            if (field.attribute.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name);
+    }
+}
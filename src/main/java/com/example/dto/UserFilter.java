@@ -0,0 +1,27 @@
+package com.example.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria selecting the users a bulk operation applies to, bound from query parameters.
+ * All present criteria must match.
+ */
+@Getter
+@Setter
+public class UserFilter {
+    private String emailDomain;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdBefore;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdAfter;
+
+    public boolean isEmpty() {
+        return emailDomain == null && createdBefore == null && createdAfter == null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Where a write-behind signup is: {@code PENDING} until drained, then {@code CREATED} with
+ * the new user's id, {@code DUPLICATE_EMAIL} if the email was taken by then, or
+ * {@code FAILED} if the database kept rejecting it.
+ */
+@Getter
+public class UserIngestStatus {
+    public enum State {
+        PENDING, CREATED, DUPLICATE_EMAIL, FAILED
+    }
+
+    private final UUID trackingId;
+    private final State status;
+    private final Long userId;
+    private final String email;
+
+    public UserIngestStatus(UUID trackingId, State status, Long userId, String email) {
+        this.trackingId = trackingId;
+        this.status = status;
+        this.userId = userId;
+        this.email = email;
+    }
+}
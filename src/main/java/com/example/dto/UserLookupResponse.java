@@ -0,0 +1,16 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class UserLookupResponse<T> {
+    private final List<T> users;
+    private final List<Long> missing;
+
+    public UserLookupResponse(List<T> users, List<Long> missing) {
+        this.users = users;
+        this.missing = missing;
+    }
+}
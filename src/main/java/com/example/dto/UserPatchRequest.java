@@ -0,0 +1,25 @@
+package com.example.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Partial update: {@code null} fields are left unchanged, so the constraints only apply
+ * to the fields that are present.
+ */
+@Getter
+@Setter
+public class UserPatchRequest {
+    @Pattern(regexp = "(?s).*\\S.*", message = "Name must not be blank")
+    private String name;
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Email must not be blank")
+    @Email(message = "Invalid email format")
+    private String email;
+
+    @PositiveOrZero(message = "Age must be positive")
+    private Integer age;
+}
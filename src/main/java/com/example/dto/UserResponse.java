@@ -13,4 +13,6 @@ public class UserResponse {
     private String email;
     private Integer age;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
 }
\ No newline at end of file
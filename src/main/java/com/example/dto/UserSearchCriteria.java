@@ -0,0 +1,25 @@
+package com.example.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional search criteria, bound from query parameters; absent ones do not restrict the
+ * result. {@code createdFrom} is inclusive, {@code createdTo} exclusive.
+ */
+@Getter
+@Setter
+public class UserSearchCriteria {
+    private String namePrefix;
+    private Integer minAge;
+    private Integer maxAge;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+}
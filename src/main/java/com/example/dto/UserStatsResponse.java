@@ -0,0 +1,31 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Dashboard aggregates. {@code ageHistogram} is keyed by bucket label ({@code "30-39"},
+ * {@code "100+"}, {@code "unknown"}); {@code signupsPerDay} counts users created on each
+ * day who still exist, oldest day first. {@code approximate} is set when {@code total}
+ * comes from planner statistics rather than the counters.
+ */
+@Getter
+public class UserStatsResponse {
+    private final long total;
+    private final boolean approximate;
+    private final Map<String, Long> ageHistogram;
+    private final Map<LocalDate, Long> signupsPerDay;
+    private final LocalDateTime asOf;
+
+    public UserStatsResponse(long total, boolean approximate, Map<String, Long> ageHistogram,
+                             Map<LocalDate, Long> signupsPerDay, LocalDateTime asOf) {
+        this.total = total;
+        this.approximate = approximate;
+        this.ageHistogram = ageHistogram;
+        this.signupsPerDay = signupsPerDay;
+        this.asOf = asOf;
+    }
+}
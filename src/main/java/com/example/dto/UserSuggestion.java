@@ -0,0 +1,18 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+@Getter
+public class UserSuggestion {
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final double score;
+
+    public UserSuggestion(Long id, String name, String email, double score) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.score = score;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Just the validators of a user ({@code @Version} and last modification time), enough to
+ * answer a conditional GET without loading or serializing the user.
+ */
+@Getter
+public class UserVersion {
+    private final Long version;
+    private final LocalDateTime lastModified;
+
+    public UserVersion(Long version, LocalDateTime updatedAt, LocalDateTime createdAt) {
+        this.version = version;
+        this.lastModified = updatedAt != null ? updatedAt : createdAt;
+    }
+}
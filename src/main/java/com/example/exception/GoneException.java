@@ -0,0 +1,10 @@
+package com.example.exception;
+
+/**
+ * The requested position no longer exists (e.g. compacted away); answered with 410.
+ */
+public class GoneException extends RuntimeException {
+    public GoneException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.exception;
+
+import java.time.Duration;
+
+/**
+ * The request was refused to protect a bounded resource; answered with 503 and
+ * {@code Retry-After}.
+ */
+public class OverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public OverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
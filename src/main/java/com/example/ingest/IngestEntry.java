@@ -0,0 +1,55 @@
+package com.example.ingest;
+
+import com.example.dto.UserRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * A signup accepted into the write-ahead log; {@code acceptedAt} becomes the user's
+ * {@code created_at}. The log record is
+ * {@code [tracking id][accepted at, epoch millis UTC][age][name length][name][email length][email]}.
+ */
+record IngestEntry(long sequence, UUID trackingId, LocalDateTime acceptedAt, String name, String email, int age) {
+
+    static IngestEntry accept(UserRequest request) {
+        // Millisecond precision, as stored in the log, so a replay writes the same created_at.
+        return new IngestEntry(0, UUID.randomUUID(), LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS),
+                request.getName(), request.getEmail(), request.getAge());
+    }
+
+    IngestEntry withSequence(long sequence) {
+        return new IngestEntry(sequence, trackingId, acceptedAt, name, email, age);
+    }
+
+    byte[] encode() {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(Long.BYTES * 3 + Integer.BYTES * 3 + nameBytes.length + emailBytes.length)
+                .putLong(trackingId.getMostSignificantBits())
+                .putLong(trackingId.getLeastSignificantBits())
+                .putLong(acceptedAt.toInstant(ZoneOffset.UTC).toEpochMilli())
+                .putInt(age)
+                .putInt(nameBytes.length).put(nameBytes)
+                .putInt(emailBytes.length).put(emailBytes)
+                .array();
+    }
+
+    static IngestEntry decode(long sequence, ByteBuffer payload) {
+        UUID trackingId = new UUID(payload.getLong(), payload.getLong());
+        LocalDateTime acceptedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(payload.getLong()), ZoneOffset.UTC);
+        int age = payload.getInt();
+        return new IngestEntry(sequence, trackingId, acceptedAt, string(payload), string(payload), age);
+    }
+
+    private static String string(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getInt()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.ingest;
+
+import com.example.dto.UserIngestStatus;
+import com.example.dto.UserIngestStatus.State;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes a drained batch with three array-bound statements, whatever its size: skip
+ * tracking ids already recorded (a batch replayed after a crash between commit and
+ * checkpoint), insert the users, record every outcome. Runs in the caller's transaction.
+ */
+@Repository
+public class UserIngestWriter {
+    private static final String PROCESSED = "SELECT tracking_id FROM user_ingest WHERE tracking_id = ANY (?)";
+    // Each row takes its own nextval, as in UserImportService. ON CONFLICT also settles
+    // duplicates within the batch: the first occurrence, in log order, wins.
+    private static final String INSERT_USERS = "INSERT INTO users (id, name, email, age, created_at, updated_at, version) " +
+            "SELECT nextval('users_seq'), b.name, b.email, b.age, b.accepted_at, b.accepted_at, 0 " +
+            "FROM unnest(?::text[], ?::text[], ?::int[], ?::timestamp[]) WITH ORDINALITY AS b(name, email, age, accepted_at, n) " +
+            "ORDER BY b.n ON CONFLICT (email) DO NOTHING RETURNING id, email";
+    private static final String RECORD = "INSERT INTO user_ingest " +
+            "(tracking_id, status, user_id, email, accepted_at, processed_at) " +
+            "SELECT b.*, LOCALTIMESTAMP FROM unnest(?::uuid[], ?::text[], ?::int8[], ?::text[], ?::timestamp[]) " +
+            "AS b(tracking_id, status, user_id, email, accepted_at) ON CONFLICT (tracking_id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserIngestWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Outcomes in batch order; entries that had already been written are left out.
+     */
+    List<Outcome> write(List<IngestEntry> batch) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Outcome>>) connection -> {
+            Set<UUID> processed = processed(connection, batch);
+            List<IngestEntry> fresh = batch.stream().filter(entry -> !processed.contains(entry.trackingId())).toList();
+            if (fresh.isEmpty()) {
+                return List.of();
+            }
+
+            Map<String, Long> created = insertUsers(connection, fresh);
+            List<Outcome> outcomes = new ArrayList<>(fresh.size());
+            for (IngestEntry entry : fresh) {
+                // remove: a later duplicate of the same email in this batch lost
+                Long userId = created.remove(entry.email());
+                outcomes.add(new Outcome(entry, userId));
+            }
+            record(connection, outcomes);
+            return outcomes;
+        });
+    }
+
+    /**
+     * Records {@code entry} as {@code FAILED} without creating a user.
+     */
+    void recordFailed(IngestEntry entry) {
+        jdbcTemplate.update("INSERT INTO user_ingest (tracking_id, status, email, accepted_at, processed_at) " +
+                        "VALUES (?, ?, ?, ?, LOCALTIMESTAMP) ON CONFLICT (tracking_id) DO NOTHING",
+                entry.trackingId(), State.FAILED.name(), entry.email(), entry.acceptedAt());
+    }
+
+    Optional<UserIngestStatus> findStatus(UUID trackingId) {
+        return jdbcTemplate.query("SELECT status, user_id, email FROM user_ingest WHERE tracking_id = ?",
+                (rs, row) -> new UserIngestStatus(trackingId, State.valueOf(rs.getString("status")),
+                        rs.getObject("user_id", Long.class), rs.getString("email")),
+                trackingId).stream().findFirst();
+    }
+
+    int purgeProcessedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM user_ingest WHERE processed_at < ?", cutoff);
+    }
+
+    private static Set<UUID> processed(Connection connection, List<IngestEntry> batch) throws SQLException {
+        Set<UUID> processed = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(PROCESSED)) {
+            statement.setArray(1, array(connection, "uuid", batch.stream().map(IngestEntry::trackingId).toArray()));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    processed.add(rs.getObject(1, UUID.class));
+                }
+            }
+        }
+        return processed;
+    }
+
+    private static Map<String, Long> insertUsers(Connection connection, List<IngestEntry> entries) throws SQLException {
+        Map<String, Long> created = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_USERS)) {
+            statement.setArray(1, array(connection, "text", entries.stream().map(IngestEntry::name).toArray()));
+            statement.setArray(2, array(connection, "text", entries.stream().map(IngestEntry::email).toArray()));
+            statement.setArray(3, array(connection, "int4", entries.stream().map(IngestEntry::age).toArray()));
+            statement.setArray(4, array(connection, "timestamp",
+                    entries.stream().map(entry -> Timestamp.valueOf(entry.acceptedAt())).toArray()));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    created.put(rs.getString("email"), rs.getLong("id"));
+                }
+            }
+        }
+        return created;
+    }
+
+    private static void record(Connection connection, List<Outcome> outcomes) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(RECORD)) {
+            statement.setArray(1, array(connection, "uuid", outcomes.stream().map(o -> o.entry().trackingId()).toArray()));
+            statement.setArray(2, array(connection, "text", outcomes.stream().map(o -> o.state().name()).toArray()));
+            statement.setArray(3, array(connection, "int8", outcomes.stream().map(Outcome::userId).toArray()));
+            statement.setArray(4, array(connection, "text", outcomes.stream().map(o -> o.entry().email()).toArray()));
+            statement.setArray(5, array(connection, "timestamp",
+                    outcomes.stream().map(o -> Timestamp.valueOf(o.entry().acceptedAt())).toArray()));
+            statement.executeUpdate();
+        }
+    }
+
+    private static Array array(Connection connection, String type, Object[] values) throws SQLException {
+        return connection.createArrayOf(type, values);
+    }
+
+    record Outcome(IngestEntry entry, Long userId) {
+        State state() {
+            return userId != null ? State.CREATED : State.DUPLICATE_EMAIL;
+        }
+    }
+}
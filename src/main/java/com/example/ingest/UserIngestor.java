@@ -0,0 +1,460 @@
+package com.example.ingest;
+
+import com.example.cache.EmailBloomFilter;
+import com.example.changes.UserChangeFeed;
+import com.example.dto.UserChange.Operation;
+import com.example.dto.UserIngestStatus;
+import com.example.dto.UserIngestStatus.State;
+import com.example.dto.UserRequest;
+import com.example.exception.OverloadedException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.search.UserSuggestIndex;
+import com.example.stats.UserStats;
+import com.example.stats.UserStatsCell;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind signups ({@code app.ingest.write-behind=true}). {@link #accept(UserRequest)}
+ * appends the validated request to a local {@link WriteAheadLog}, waits for the group
+ * fsync and returns a tracking id; the caller answers 202. One drainer thread takes up to
+ * {@code drain-batch-size} durable entries at a time and writes them with
+ * {@link UserIngestWriter} in one transaction, then checkpoints the log. A failed batch is
+ * retried, so the drain is at-least-once against PostgreSQL and the tracking-id table
+ * makes it exactly-once in effect. After {@code max-attempts} failures in a row the
+ * batch is written one entry at a time, and an entry that PostgreSQL rejects on its own
+ * is recorded as {@code FAILED} instead of blocking the log.
+ * <p>
+ * At most {@code max-pending} entries may be undrained; beyond that signups are refused
+ * with 503 rather than growing the log while the database is behind. Entries still in
+ * the log at shutdown or after a crash are replayed on the next start.
+ * <p>
+ * The log is local to the instance: a signup is PENDING only on the instance that took
+ * it; once drained its status is visible everywhere.
+ */
+@Component
+public class UserIngestor {
+    private static final Logger logger = LogManager.getLogger(UserIngestor.class);
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final DataSize segmentSize;
+    private final int maxPending;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration statusRetention;
+    private final UserIngestWriter writer;
+    private final UserStats userStats;
+    private final UserChangeFeed changeFeed;
+    private final EmailBloomFilter emailFilter;
+    private final UserSuggestIndex suggestIndex;
+    private final TransactionTemplate transaction;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<IngestEntry> pending = new ArrayDeque<>();
+    private final Map<UUID, IngestEntry> pendingById = new ConcurrentHashMap<>();
+
+    private WriteAheadLog log;
+    private Semaphore capacity;
+    private Thread drainer;
+    private volatile boolean running;
+    // Highest sequence written to PostgreSQL; the log is checkpointed up to it.
+    private long drainedThrough;
+
+    private Counter accepted;
+    private Counter rejected;
+    private Counter created;
+    private Counter duplicates;
+    private Counter failed;
+    private Timer drainTimer;
+
+    public UserIngestor(@Value("${app.ingest.write-behind:false}") boolean enabled,
+                        @Value("${app.ingest.wal-dir:data/ingest-wal}") Path directory,
+                        @Value("${app.ingest.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${app.ingest.max-pending:100000}") int maxPending,
+                        @Value("${app.ingest.drain-batch-size:1000}") int batchSize,
+                        @Value("${app.ingest.max-attempts:5}") int maxAttempts,
+                        @Value("${app.ingest.status-retention:P7D}") Duration statusRetention,
+                        UserIngestWriter writer,
+                        UserStats userStats,
+                        UserChangeFeed changeFeed,
+                        EmailBloomFilter emailFilter,
+                        UserSuggestIndex suggestIndex,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        if (segmentSize.toBytes() < DataSize.ofKilobytes(64).toBytes() || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("app.ingest.segment-size must be between 64KB and 2GB");
+        }
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.statusRetention = statusRetention;
+        this.writer = writer;
+        this.userStats = userStats;
+        this.changeFeed = changeFeed;
+        this.emailFilter = emailFilter;
+        this.suggestIndex = suggestIndex;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Opens the log and queues what it still holds; the drainer starts once the
+     * application is ready.
+     */
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        DistributionSummary syncBatch = DistributionSummary.builder("users.ingest.wal.sync.records")
+                .description("Signups made durable by one fsync of the write-ahead log")
+                .register(meterRegistry);
+        log = new WriteAheadLog(directory, (int) segmentSize.toBytes(), syncBatch::record);
+        int recovered = log.recover((sequence, payload) -> enqueue(IngestEntry.decode(sequence, payload)));
+        // Negative if the replay alone exceeds the bound: new signups wait for it to drain.
+        capacity = new Semaphore(maxPending - recovered);
+        if (recovered > 0) {
+            logger.info("Replaying {} undrained signups from the write-ahead log in {}", recovered, directory);
+        }
+
+        accepted = Counter.builder("users.ingest.accepted").register(meterRegistry);
+        rejected = Counter.builder("users.ingest.rejected")
+                .description("Signups refused because max-pending were undrained")
+                .register(meterRegistry);
+        created = Counter.builder("users.ingest.drained").tag("outcome", "created").register(meterRegistry);
+        duplicates = Counter.builder("users.ingest.drained").tag("outcome", "duplicate_email").register(meterRegistry);
+        failed = Counter.builder("users.ingest.drained").tag("outcome", "failed").register(meterRegistry);
+        drainTimer = Timer.builder("users.ingest.drain")
+                .description("Time to write one drained batch to PostgreSQL")
+                .register(meterRegistry);
+        Gauge.builder("users.ingest.pending", pendingById, Map::size)
+                .description("Accepted signups not yet written to PostgreSQL")
+                .register(meterRegistry);
+        Gauge.builder("users.ingest.lag", this, UserIngestor::lagSeconds)
+                .description("Age of the oldest undrained signup")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startDrainer() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::drainLoop, "user-ingest-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Lets the drainer finish its batch and syncs the log; what is left is replayed on the
+     * next start.
+     */
+    @PreDestroy
+    void close() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        if (drainer != null) {
+            signalDrainer();
+            drainer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        checkpoint();
+        log.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Durably queues {@code request}, already validated, for creation.
+     *
+     * @throws OverloadedException if {@code max-pending} signups are undrained
+     */
+    public UserIngestStatus accept(UserRequest request) {
+        if (!enabled) {
+            throw new IllegalStateException("Write-behind ingestion is disabled");
+        }
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw new OverloadedException("Signup backlog is full, retry later", RETRY_AFTER);
+        }
+        IngestEntry entry;
+        try {
+            entry = IngestEntry.accept(request);
+            byte[] record = entry.encode();
+            lock.lock();
+            try {
+                entry = entry.withSequence(log.append(record));
+                enqueue(entry);
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+
+        try {
+            log.awaitDurable(entry.sequence());
+        } catch (InterruptedException e) {
+            // Still in the log and the queue: it will be drained, only the reply is lost.
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the write-ahead log", e);
+        }
+        signalDrainer();
+        accepted.increment();
+        return new UserIngestStatus(entry.trackingId(), State.PENDING, null, entry.email());
+    }
+
+    public UserIngestStatus status(UUID trackingId) {
+        IngestEntry entry = pendingById.get(trackingId);
+        if (entry != null) {
+            return new UserIngestStatus(trackingId, State.PENDING, null, entry.email());
+        }
+        return writer.findStatus(trackingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Unknown tracking id: " + trackingId));
+    }
+
+    @Scheduled(cron = "${app.ingest.status-purge-cron:0 15 * * * *}")
+    public void purgeStatuses() {
+        if (enabled) {
+            int purged = writer.purgeProcessedBefore(LocalDateTime.now().minus(statusRetention));
+            if (purged > 0) {
+                logger.info("Purged {} signup statuses older than {}", purged, statusRetention);
+            }
+        }
+    }
+
+    private void enqueue(IngestEntry entry) {
+        pending.addLast(entry);
+        pendingById.put(entry.trackingId(), entry);
+    }
+
+    private void drainLoop() {
+        long backoffMillis = 100;
+        int failures = 0;
+        while (running) {
+            List<IngestEntry> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                if (failures < maxAttempts) {
+                    drain(batch);
+                } else {
+                    drainOneByOne(batch);
+                }
+                failures = 0;
+                backoffMillis = 100;
+            } catch (RuntimeException e) {
+                failures++;
+                logger.error("Draining {} signups failed ({} in a row); retrying in {} ms", batch.size(), failures,
+                        backoffMillis, e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * The oldest durable entries, still queued so their status reads PENDING until the
+     * batch commits.
+     */
+    private List<IngestEntry> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            long durable = log.durableSequence();
+            while (running && (pending.isEmpty() || pending.peekFirst().sequence() > durable)) {
+                available.await(200, TimeUnit.MILLISECONDS);
+                durable = log.durableSequence();
+            }
+            List<IngestEntry> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            for (IngestEntry entry : pending) {
+                if (batch.size() == batchSize || entry.sequence() > durable) {
+                    break;
+                }
+                batch.add(entry);
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes {@code batch} in one transaction. Once that commits, nothing here throws, so
+     * a retry never repeats the bookkeeping; a retried batch that did commit is skipped by
+     * the writer and only taken off the queue.
+     */
+    private void drain(List<IngestEntry> batch) {
+        List<UserIngestWriter.Outcome> outcomes = drainTimer.record(() -> transaction.execute(status -> {
+            List<UserIngestWriter.Outcome> written = writer.write(batch);
+            Map<UserStatsCell, Long> signups = new HashMap<>();
+            Map<Long, Long> versions = new LinkedHashMap<>();
+            for (UserIngestWriter.Outcome outcome : written) {
+                if (outcome.userId() != null) {
+                    signups.merge(UserStatsCell.of(outcome.entry().acceptedAt(), outcome.entry().age()), 1L, Long::sum);
+                    versions.put(outcome.userId(), 0L);
+                }
+            }
+            userStats.apply(signups);
+            changeFeed.recordAll(versions.keySet(), Operation.CREATED, versions);
+            return written;
+        }));
+
+        markDrained(batch);
+        for (UserIngestWriter.Outcome outcome : outcomes) {
+            IngestEntry entry = outcome.entry();
+            if (outcome.userId() != null) {
+                emailFilter.put(entry.email());
+                suggestIndex.upsert(outcome.userId(), entry.name(), entry.email());
+                created.increment();
+            } else {
+                duplicates.increment();
+            }
+        }
+        checkpoint();
+    }
+
+    /**
+     * For a batch that kept failing: entries PostgreSQL rejects on their own are recorded
+     * as {@code FAILED}. Anything that looks like the database being unavailable is thrown,
+     * so an outage is retried rather than failing every entry.
+     */
+    private void drainOneByOne(List<IngestEntry> batch) {
+        for (IngestEntry entry : batch) {
+            try {
+                drain(List.of(entry));
+            } catch (NonTransientDataAccessException e) {
+                if (e instanceof DataAccessResourceFailureException) {
+                    throw e;
+                }
+                transaction.executeWithoutResult(status -> writer.recordFailed(entry));
+                logger.error("Signup {} was rejected by the database after {} attempts; recorded as FAILED",
+                        entry.trackingId(), maxAttempts, e);
+                markDrained(List.of(entry));
+                failed.increment();
+                checkpoint();
+            }
+        }
+    }
+
+    /**
+     * Takes the written entries off the queue by tracking id, releasing capacity only for
+     * those still queued, so running it twice for a batch changes nothing.
+     */
+    private void markDrained(List<IngestEntry> batch) {
+        lock.lock();
+        try {
+            int removed = 0;
+            for (IngestEntry entry : batch) {
+                if (pendingById.remove(entry.trackingId()) != null) {
+                    removed++;
+                }
+            }
+            // Batches are taken from the head, so the drained entries are a prefix of the queue.
+            while (!pending.isEmpty() && !pendingById.containsKey(pending.peekFirst().trackingId())) {
+                pending.pollFirst();
+            }
+            capacity.release(removed);
+            drainedThrough = Math.max(drainedThrough, batch.get(batch.size() - 1).sequence());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A failure only costs a replay of drained entries after a restart, which the writer
+     * skips; the next drain tries again.
+     */
+    private void checkpoint() {
+        long through;
+        lock.lock();
+        try {
+            through = drainedThrough;
+        } finally {
+            lock.unlock();
+        }
+        if (through == 0) {
+            return;
+        }
+        try {
+            log.checkpoint(through);
+        } catch (RuntimeException e) {
+            logger.error("Checkpointing the write-ahead log at {} failed; retrying after the next batch", through, e);
+        }
+    }
+
+    private void signalDrainer() {
+        lock.lock();
+        try {
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double lagSeconds() {
+        lock.lock();
+        try {
+            IngestEntry oldest = pending.peekFirst();
+            return oldest == null ? 0 : Duration.between(oldest.acceptedAt(), LocalDateTime.now()).toMillis() / 1000.0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.ingest;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records in fixed-size, memory-mapped segment files
+ * ({@code <first sequence>.wal}). Each record is {@code [length][crc32c][sequence][payload]};
+ * a zero length ends a segment, so a torn tail is detected by its checksum or length and
+ * ignored on recovery.
+ * <p>
+ * Appends only copy into the mapping. One sync thread makes them durable by
+ * {@code msync}ing the written range: appends that arrive during a sync are covered by
+ * the next one, so a burst costs one disk flush per round rather than one per record.
+ * {@link #awaitDurable(long)} blocks until a sequence is covered.
+ * <p>
+ * {@link #checkpoint(long)} records that everything up to a sequence has been consumed
+ * and deletes the segments that only hold consumed records. After a restart
+ * {@link #recover(RecordConsumer)} replays the records after the checkpoint; new appends
+ * always start a fresh segment, so recovered files are never written again.
+ */
+class WriteAheadLog implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(WriteAheadLog.class);
+    private static final int HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES;
+    private static final String SUFFIX = ".wal";
+    private static final String CHECKPOINT = "checkpoint";
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(long sequence, ByteBuffer payload);
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final IntConsumer syncListener;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final Thread syncThread;
+
+    private Segment active;
+    private long nextSequence;
+    private long lastWritten;
+    private long lastSynced;
+    private long checkpointed;
+    private volatile boolean closed;
+
+    /**
+     * @param syncListener told how many records each sync made durable
+     */
+    WriteAheadLog(Path directory, int segmentBytes, IntConsumer syncListener) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncListener = syncListener;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                        .forEach(file -> segments.put(firstSequence(file), file));
+            }
+            checkpointed = readCheckpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open write-ahead log in " + directory, e);
+        }
+        nextSequence = checkpointed + 1;
+        lastWritten = lastSynced = checkpointed;
+        syncThread = new Thread(this::syncLoop, "ingest-wal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    /**
+     * Replays every intact record after the checkpoint in sequence order and returns how
+     * many there were. Must be called once, before the first append.
+     */
+    int recover(RecordConsumer consumer) {
+        int recovered = 0;
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (buffer.remaining() >= HEADER_BYTES) {
+                    int start = buffer.position();
+                    int length = buffer.getInt();
+                    int checksum = buffer.getInt();
+                    long sequence = buffer.getLong();
+                    if (length <= 0 || length > buffer.remaining() || checksum != checksum(buffer, start, length)) {
+                        break;
+                    }
+                    ByteBuffer payload = buffer.slice(buffer.position(), length);
+                    buffer.position(buffer.position() + length);
+                    if (sequence > checkpointed) {
+                        consumer.accept(sequence, payload);
+                        recovered++;
+                    }
+                    nextSequence = Math.max(nextSequence, sequence + 1);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read write-ahead log segment " + segment.getValue(), e);
+            }
+        }
+        if (!segments.isEmpty()) {
+            // The newest segment may be empty (crash right after it was created).
+            nextSequence = Math.max(nextSequence, segments.lastKey() + 1);
+        }
+        lock.lock();
+        try {
+            lastWritten = lastSynced = nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+        return recovered;
+    }
+
+    /**
+     * Copies {@code payload} into the log and returns its sequence; not yet durable.
+     */
+    long append(byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the segment size");
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            if (active == null || active.position + recordBytes > segmentBytes) {
+                roll();
+            }
+            long sequence = nextSequence++;
+            MappedByteBuffer buffer = active.buffer;
+            int start = active.position;
+            buffer.putLong(start + Integer.BYTES * 2, sequence);
+            buffer.put(start + HEADER_BYTES, payload);
+            buffer.putInt(start + Integer.BYTES, checksum(buffer, start, payload.length));
+            // Length last: a record is only visible once it is complete.
+            buffer.putInt(start, payload.length);
+            active.position += recordBytes;
+            lastWritten = sequence;
+            written.signal();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void awaitDurable(long sequence) throws InterruptedException {
+        lock.lock();
+        try {
+            while (lastSynced < sequence) {
+                if (closed) {
+                    throw new IllegalStateException("Write-ahead log closed before record " + sequence + " was synced");
+                }
+                synced.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long durableSequence() {
+        lock.lock();
+        try {
+            return lastSynced;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that every sequence up to {@code sequence} has been consumed, durably, and
+     * deletes segments holding nothing newer.
+     */
+    void checkpoint(long sequence) {
+        lock.lock();
+        try {
+            if (sequence <= checkpointed) {
+                return;
+            }
+            writeCheckpoint(sequence);
+            checkpointed = sequence;
+            // A segment is done once the next one starts at or before the checkpoint.
+            while (segments.size() > 1) {
+                Map.Entry<Long, Path> first = segments.firstEntry();
+                Long next = segments.higherKey(first.getKey());
+                if (next > checkpointed + 1) {
+                    break;
+                }
+                Files.deleteIfExists(first.getValue());
+                segments.pollFirstEntry();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write write-ahead log checkpoint", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Syncs what has been written and stops the sync thread. Records not yet
+     * checkpointed stay on disk for the next {@link #recover(RecordConsumer)}.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (active != null) {
+                active.buffer.force();
+                lastSynced = lastWritten;
+            }
+            written.signalAll();
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        syncThread.interrupt();
+    }
+
+    private void syncLoop() {
+        while (!closed) {
+            Segment segment;
+            int from;
+            int to;
+            long target;
+            lock.lock();
+            try {
+                while (lastWritten == lastSynced && !closed) {
+                    written.await(1, TimeUnit.SECONDS);
+                }
+                if (closed) {
+                    return;
+                }
+                segment = active;
+                from = segment.synced;
+                to = segment.position;
+                target = lastWritten;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                segment.buffer.force(from, to - from);
+            } catch (RuntimeException e) {
+                logger.error("Write-ahead log sync failed; retrying", e);
+                continue;
+            }
+
+            lock.lock();
+            try {
+                segment.synced = Math.max(segment.synced, to);
+                syncListener.accept((int) Math.max(0, target - lastSynced));
+                lastSynced = Math.max(lastSynced, target);
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Seals the active segment (syncing it fully, so everything before the new segment is
+     * durable) and maps a new one. Called with the lock held.
+     */
+    private void roll() {
+        try {
+            if (active != null) {
+                active.buffer.force();
+                lastSynced = lastWritten;
+                synced.signalAll();
+            }
+            Path path = directory.resolve(String.format("%020d%s", nextSequence, SUFFIX));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                active = new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+            }
+            // Records synced into the segment are only durable once its directory entry is.
+            syncDirectory();
+            segments.put(nextSequence, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create write-ahead log segment", e);
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        return buffer.getLong();
+    }
+
+    /**
+     * Write-to-temporary, sync, atomic rename, then sync the directory so the rename
+     * itself survives: a crash leaves the old or the new value.
+     */
+    private void writeCheckpoint(long sequence) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+    }
+
+    /**
+     * fsync of the directory, which makes created and renamed entries durable.
+     */
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Over the sequence and payload of the record at {@code start}.
+     */
+    private static int checksum(ByteBuffer buffer, int start, int payloadLength) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + Integer.BYTES * 2, Long.BYTES + payloadLength));
+        return (int) crc.getValue();
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int synced;
+
+        private Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
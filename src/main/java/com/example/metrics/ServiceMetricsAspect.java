@@ -0,0 +1,95 @@
+package com.example.metrics;
+
+import com.example.exception.ConflictException;
+import com.example.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolationException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the service layer as {@code user.service} tagged with
+ * {@code class}, {@code method} and {@code outcome}. The timer count per outcome is the
+ * throughput/error counter; histogram buckets are enabled in configuration so Prometheus
+ * can derive p50/p95/p99. Runs outside {@code @Transactional}, so commit time and
+ * constraint violations raised on commit are included.
+ *
+ * <p>Timers are resolved once per method and outcome and then reused, which keeps the
+ * per-call cost to two clock reads and one histogram update.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+    public static final String METRIC = "user.service";
+
+    public enum Outcome {
+        SUCCESS, NOT_FOUND, CONFLICT, VALIDATION, ERROR;
+
+        private final String tag = name().toLowerCase();
+
+        static Outcome of(Throwable e) {
+            if (e instanceof ResourceNotFoundException) {
+                return NOT_FOUND;
+            }
+            if (e instanceof ConflictException || e instanceof DataIntegrityViolationException
+                    || e instanceof OptimisticLockingFailureException) {
+                return CONFLICT;
+            }
+            if (e instanceof IllegalArgumentException || e instanceof ConstraintViolationException) {
+                return VALIDATION;
+            }
+            return ERROR;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.service.*Service.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            timers.computeIfAbsent(method, this::register)[outcome.ordinal()]
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer[] register(Method method) {
+        Outcome[] outcomes = Outcome.values();
+        Timer[] byOutcome = new Timer[outcomes.length];
+        for (Outcome outcome : outcomes) {
+            byOutcome[outcome.ordinal()] = Timer.builder(METRIC)
+                    .description("Latency of service-layer calls")
+                    .tag("class", method.getDeclaringClass().getSimpleName())
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry);
+        }
+        return byOutcome;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.reactive;
+
+import com.example.dto.CursorPage;
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/users")
+@Profile(ReactiveUserServiceApplication.PROFILE)
+@RequiredArgsConstructor
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    @PostMapping
+    public Mono<ResponseEntity<UserResponse>> createUser(@Valid @RequestBody UserRequest request) {
+        return userService.createUser(request)
+                .map(user -> ResponseEntity.status(HttpStatus.CREATED).body(user));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<UserResponse> getUserById(@PathVariable Long id) {
+        return userService.getUserById(id);
+    }
+
+    @GetMapping
+    public Mono<CursorPage<UserResponse>> getUsers(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "id") String sort) {
+        return userService.getUsers(limit, after, sort);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserResponse> streamUsers() {
+        return userService.streamUsers();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserResponse> exportUsers() {
+        return userService.streamUsers();
+    }
+
+    @PutMapping("/{id}")
+    public Mono<UserResponse> updateUser(
+            @PathVariable Long id,
+            @Valid @RequestBody UserRequest request) {
+        return userService.updateUser(id, request);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteUser(@PathVariable Long id) {
+        return userService.deleteUser(id);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.reactive;
+
+import com.example.dto.UserChange.Operation;
+import com.example.entity.User;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC access to {@code users}. The SQL mirrors what Hibernate does on the blocking side:
+ * ids come from {@code users_seq} and the email uniqueness is left to {@code uk_users_email},
+ * whose violation surfaces as a {@code DataIntegrityViolationException}.
+ * <p>
+ * With {@code app.changes.enabled} each write also inserts its {@code user_changes} outbox
+ * row in the same statement (a data-modifying CTE), so the change is recorded exactly when
+ * the autocommitted write is. This process runs no sequencer: the servlet application's
+ * {@code UserChangeFeed} numbers and publishes the rows on its next poll.
+ */
+@Repository
+@Profile(ReactiveUserServiceApplication.PROFILE)
+public class ReactiveUserRepository {
+    private static final String COLUMNS = "id, name, email, age, created_at, updated_at, version";
+
+    private final DatabaseClient client;
+    private final boolean recordChanges;
+
+    public ReactiveUserRepository(ConnectionFactory connectionFactory,
+                                  @Value("${app.changes.enabled:true}") boolean recordChanges) {
+        this.client = DatabaseClient.create(connectionFactory);
+        this.recordChanges = recordChanges;
+    }
+
+    public Mono<User> findById(long id) {
+        return client.sql("SELECT " + COLUMNS + " FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Flux<User> findPageAfterId(long afterId, int limit) {
+        return client.sql("SELECT " + COLUMNS + " FROM users WHERE id > :afterId ORDER BY id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    public Flux<User> findFirstPageByCreatedAt(int limit) {
+        return client.sql("SELECT " + COLUMNS + " FROM users ORDER BY created_at, id LIMIT :limit")
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    public Flux<User> findPageAfterCreatedAt(LocalDateTime createdAt, long afterId, int limit) {
+        return client.sql("SELECT " + COLUMNS + " FROM users WHERE (created_at, id) > (:createdAt, :afterId) "
+                        + "ORDER BY created_at, id LIMIT :limit")
+                .bind("createdAt", createdAt)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    /**
+     * Streams every row through a server-side portal; rows are pulled {@code fetchSize} at a time
+     * as the subscriber requests them, so a slow reader holds back the query instead of buffering.
+     */
+    public Flux<User> streamAll(int fetchSize) {
+        return client.sql("SELECT " + COLUMNS + " FROM users ORDER BY id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    public Mono<User> insert(User user) {
+        return client.sql(recorded("INSERT INTO users (id, name, email, age, created_at, updated_at) "
+                        + "VALUES (nextval('users_seq'), :name, :email, :age, LOCALTIMESTAMP, LOCALTIMESTAMP) "
+                        + "RETURNING " + COLUMNS, Operation.CREATED))
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("age", user.getAge())
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<User> update(long id, User user) {
+        return client.sql(recorded("UPDATE users SET name = :name, email = :email, age = :age, "
+                        + "updated_at = LOCALTIMESTAMP, version = version + 1 "
+                        + "WHERE id = :id "
+                        + "RETURNING " + COLUMNS, Operation.UPDATED))
+                .bind("id", id)
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("age", user.getAge())
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<Long> deleteById(long id) {
+        return client.sql(recorded("DELETE FROM users WHERE id = :id RETURNING id", Operation.DELETED))
+                .bind("id", id)
+                .fetch()
+                .all()
+                .count();
+    }
+
+    /**
+     * Wraps a write that returns the affected rows so it also records them in
+     * {@code user_changes}, with the version after the change ({@code null} for deletes),
+     * and still returns the same rows.
+     */
+    private String recorded(String write, Operation operation) {
+        if (!recordChanges) {
+            return write;
+        }
+        String version = operation == Operation.DELETED ? "NULL" : "version";
+        return "WITH written AS (" + write + "), "
+                + "recorded AS (INSERT INTO user_changes (user_id, operation, version, changed_at) "
+                + "SELECT id, '" + operation.name() + "', " + version + ", LOCALTIMESTAMP FROM written) "
+                + "SELECT * FROM written";
+    }
+
+    private static User toUser(Readable row) {
+        User user = new User(row.get("name", String.class), row.get("email", String.class), row.get("age", Integer.class));
+        user.setId(row.get("id", Long.class));
+        user.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        user.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        user.setVersion(row.get("version", Long.class));
+        return user;
+    }
+}
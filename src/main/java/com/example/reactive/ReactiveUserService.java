@@ -0,0 +1,107 @@
+package com.example.reactive;
+
+import com.example.dto.CursorPage;
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import com.example.entity.User;
+import com.example.exception.ResourceNotFoundException;
+import com.example.mapper.UserMapper;
+import com.example.util.UserCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@code UserService}. Request validation happens in the controller
+ * with the same {@link UserRequest} constraints; the caches of the servlet process are not
+ * shared, so every read goes to the database.
+ * <p>
+ * Writes here skip the servlet process's user cache, second-level cache, statistics, suggest
+ * index and email filter. They reach those through the change feed rows the repository
+ * records: each servlet instance applies them as its sequencer publishes them (see
+ * {@code ExternalChangeApplier}), and the statistics rollup is corrected by its reconcile.
+ * With {@code app.changes.enabled=false} only the cache ttls bound the staleness.
+ */
+@Service
+@Profile(ReactiveUserServiceApplication.PROFILE)
+@RequiredArgsConstructor
+public class ReactiveUserService {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ReactiveUserRepository userRepository;
+    private final UserMapper userMapper;
+
+    @Value("${app.reactive.export-fetch-size:500}")
+    private int exportFetchSize;
+
+    public Mono<UserResponse> createUser(UserRequest request) {
+        return userRepository.insert(userMapper.toEntity(request))
+                .map(userMapper::toResponse);
+    }
+
+    public Mono<UserResponse> getUserById(Long id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(notFound(id))
+                .map(userMapper::toResponse);
+    }
+
+    public Mono<CursorPage<UserResponse>> getUsers(int limit, String after, String sort) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        UserCursor.Order order;
+        UserCursor cursor;
+        try {
+            order = UserCursor.Order.fromParam(sort);
+            cursor = after != null ? UserCursor.decode(after, order) : null;
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
+        // One extra row tells us whether another page exists without a COUNT query.
+        Flux<User> users;
+        if (order == UserCursor.Order.ID) {
+            users = userRepository.findPageAfterId(cursor != null ? cursor.getId() : 0L, limit + 1);
+        } else if (cursor == null) {
+            users = userRepository.findFirstPageByCreatedAt(limit + 1);
+        } else {
+            users = userRepository.findPageAfterCreatedAt(cursor.getCreatedAt(), cursor.getId(), limit + 1);
+        }
+
+        return users.collectList().map(rows -> {
+            boolean hasMore = rows.size() > limit;
+            List<User> page = hasMore ? rows.subList(0, limit) : rows;
+            String nextCursor = hasMore ? UserCursor.after(page.get(limit - 1), order).encode() : null;
+            return new CursorPage<>(page.stream().map(userMapper::toResponse).toList(), nextCursor);
+        });
+    }
+
+    /**
+     * All users in id order, demand-driven: the database cursor only advances as fast as the
+     * subscriber (ultimately the client socket) requests elements.
+     */
+    public Flux<UserResponse> streamUsers() {
+        return userRepository.streamAll(exportFetchSize)
+                .map(userMapper::toResponse);
+    }
+
+    public Mono<UserResponse> updateUser(Long id, UserRequest request) {
+        return userRepository.update(id, userMapper.toEntity(request))
+                .switchIfEmpty(notFound(id))
+                .map(userMapper::toResponse);
+    }
+
+    public Mono<Void> deleteUser(Long id) {
+        return userRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0 ? notFound(id) : Mono.<Void>empty());
+    }
+
+    private static <T> Mono<T> notFound(Long id) {
+        return Mono.error(() -> new ResourceNotFoundException("User not found with id: " + id));
+    }
+}
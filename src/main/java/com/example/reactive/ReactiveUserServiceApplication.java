@@ -0,0 +1,37 @@
+package com.example.reactive;
+
+import com.example.exception.GlobalExceptionHandler;
+import com.example.mapper.UserMapper;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Reactive deployment of the user API: WebFlux on Netty over R2DBC, sharing the schema,
+ * {@link UserMapper} and error mapping with the servlet application. It is a separate process
+ * so the blocking stack keeps its JDBC pool and the event loops never see a JDBC call; the
+ * {@code reactive} profile keeps its beans out of {@code UserServiceApplication}'s scan.
+ * Deliberately not a {@code @SpringBootConfiguration}, so test slices keep resolving
+ * {@code UserServiceApplication} as the one application configuration.
+ */
+@Profile(ReactiveUserServiceApplication.PROFILE)
+@Configuration(proxyBeanMethods = false)
+@EnableAutoConfiguration
+@ComponentScan(basePackageClasses = {
+        ReactiveUserServiceApplication.class,
+        UserMapper.class,
+        GlobalExceptionHandler.class
+})
+public class ReactiveUserServiceApplication {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveUserServiceApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE)
+                .run(args);
+    }
+}
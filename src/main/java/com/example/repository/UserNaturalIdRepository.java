@@ -0,0 +1,13 @@
+package com.example.repository;
+
+import com.example.entity.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+    /**
+     * Looks the user up through Hibernate's natural-id API, so repeated lookups are
+     * answered from the second-level cache instead of a query on {@code email}.
+     */
+    Optional<User> findByNaturalEmail(String email);
+}
@@ -0,0 +1,29 @@
+package com.example.repository;
+
+import com.example.dto.UserField;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads that select only the given columns as tuples, so no {@code User} is instantiated
+ * or managed. Rows come back as attribute-name-to-value maps in {@link UserField} order.
+ */
+public interface UserProjectionRepository {
+    Optional<Map<String, Object>> findFieldsById(long id, Set<UserField> fields);
+
+    List<Map<String, Object>> findFieldsByIds(Collection<Long> ids, Set<UserField> fields);
+
+    List<Map<String, Object>> findFieldsAfterId(long afterId, Set<UserField> fields, int limit);
+
+    /**
+     * Keyset page in {@code (createdAt, id)} order; a {@code null} {@code createdAt}
+     * starts from the beginning.
+     */
+    List<Map<String, Object>> findFieldsAfterCreatedAt(LocalDateTime createdAt, long afterId,
+                                                       Set<UserField> fields, int limit);
+}
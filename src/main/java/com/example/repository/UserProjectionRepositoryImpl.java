@@ -0,0 +1,89 @@
+package com.example.repository;
+
+import com.example.dto.UserField;
+import com.example.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+class UserProjectionRepositoryImpl implements UserProjectionRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(long id, Set<UserField> fields) {
+        return select(fields, (cb, root) -> cb.equal(root.get("id"), id), false, 1).stream().findFirst();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByIds(Collection<Long> ids, Set<UserField> fields) {
+        return select(fields, (cb, root) -> root.get("id").in(ids), false, ids.size());
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfterId(long afterId, Set<UserField> fields, int limit) {
+        return select(fields, (cb, root) -> cb.gt(root.get("id"), afterId), false, limit);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfterCreatedAt(LocalDateTime createdAt, long afterId,
+                                                              Set<UserField> fields, int limit) {
+        return select(fields, (cb, root) -> {
+            if (createdAt == null) {
+                return cb.conjunction();
+            }
+            Path<LocalDateTime> created = root.get("createdAt");
+            // Same shape as UserRepository.findPageAfterCreatedAt, so the (created_at, id) index applies.
+            return cb.and(cb.greaterThanOrEqualTo(created, createdAt),
+                    cb.or(cb.greaterThan(created, createdAt), cb.gt(root.get("id"), afterId)));
+        }, true, limit);
+    }
+
+    private List<Map<String, Object>> select(Set<UserField> fields,
+                                             BiFunction<CriteriaBuilder, Root<User>, Predicate> where,
+                                             boolean byCreatedAt, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (UserField field : fields) {
+            selections.add(root.get(field.getAttribute()).alias(field.getAttribute()));
+        }
+        query.multiselect(selections).where(where.apply(cb, root));
+        query.orderBy(byCreatedAt
+                ? List.of(cb.asc(root.get("createdAt")), cb.asc(root.get("id")))
+                : List.of(cb.asc(root.get("id"))));
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
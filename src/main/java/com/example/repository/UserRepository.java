@@ -1,8 +1,69 @@
 package com.example.repository;
 
+import com.example.dto.UserVersion;
 import com.example.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository,
+        UserNaturalIdRepository, UserProjectionRepository {
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Version-only read for conditional GETs: an index lookup returning three columns.
+     */
+    @Query("SELECT new com.example.dto.UserVersion(u.version, u.updatedAt, u.createdAt) FROM User u WHERE u.id = :id")
+    Optional<UserVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<User> findPageAfterId(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT u FROM User u ORDER BY u.createdAt, u.id")
+    List<User> findFirstPageByCreatedAt(Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.createdAt >= :createdAt " +
+            "AND (u.createdAt > :createdAt OR u.id > :afterId) ORDER BY u.createdAt, u.id")
+    List<User> findPageAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                      @Param("afterId") long afterId,
+                                      Pageable pageable);
+
+    /**
+     * Forward-only cursor over the whole table. Must be consumed and closed inside a
+     * transaction, otherwise the PostgreSQL driver ignores the fetch size and buffers
+     * the full result set.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+
+    /**
+     * {@code [id, name, email]} rows for the suggest index; a projection, so a full scan
+     * does not fill the persistence context with entities.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT u.id, u.name, u.email FROM User u")
+    Stream<Object[]> streamAllForSuggest();
+}
@@ -0,0 +1,14 @@
+package com.example.repository;
+
+import com.example.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserSearchRepository {
+    /**
+     * Keyset page of users matching {@code specification} in id order, without the
+     * count query a {@code Page} would issue.
+     */
+    List<User> searchAfterId(Specification<User> specification, long afterId, int limit);
+}
@@ -0,0 +1,58 @@
+package com.example.repository;
+
+import com.example.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Search predicates over {@link User}. Each one is shaped to match an index:
+ * {@code lower(name) LIKE 'x%'} uses {@code idx_users_lower_name}, age bounds use
+ * {@code idx_users_age_id} and the creation window uses {@code idx_users_created_at_id}.
+ * A {@code null} argument yields {@code null}, which {@link Specification#and} ignores.
+ */
+public final class UserSpecifications {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> nameStartsWith(String prefix) {
+        if (prefix == null) {
+            return null;
+        }
+        String pattern = escapeLike(prefix.toLowerCase()) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, LIKE_ESCAPE);
+    }
+
+    public static Specification<User> ageAtLeast(Integer minAge) {
+        return minAge == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("age"), minAge);
+    }
+
+    public static Specification<User> ageAtMost(Integer maxAge) {
+        return maxAge == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("age"), maxAge);
+    }
+
+    public static Specification<User> createdFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<User> createdBefore(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    public static Specification<User> idAfter(long afterId) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a replica pool and everything else to
+ * the primary. Must sit behind a {@code LazyConnectionDataSourceProxy}: the transaction
+ * managers ask for the connection before they mark the transaction read-only, and the
+ * proxy defers that until the first statement.
+ * <p>
+ * A replica is used only while its last health check passed: it was streaming WAL from
+ * the primary and its replay lag was within {@code max-lag}. A failed connection attempt
+ * takes it out at once. With no usable replica, reads go to the primary. After a client's
+ * own write commits, its reads go to the primary for {@code read-your-writes-window}
+ * ({@link ReadYourWrites}).
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    private static final Logger logger = LogManager.getLogger(ReplicaRoutingDataSource.class);
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+    // Whether the standby is receiving WAL, and seconds behind the primary: 0 when all
+    // received WAL is replayed (an idle primary is not lag), or when the server is not a
+    // standby at all. Without a streaming receiver both LSNs stop and look caught up, so
+    // the receiver is what tells a broken replica from an idle one. Roles without
+    // pg_read_all_stats see only its pid, with a NULL status, so for them a running
+    // receiver counts as streaming.
+    private static final String LAG = "SELECT NOT pg_is_in_recovery() " +
+            "OR EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE pid IS NOT NULL " +
+            "AND coalesce(status, 'streaming') = 'streaming') AS replicating, " +
+            "CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()), 0) END AS lag";
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_LOADED;
+
+        public static Selection fromProperty(String value) {
+            try {
+                return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown replica selection: " + value
+                        + " (expected round-robin or least-loaded)");
+            }
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final Duration maxLag;
+    private final Duration readYourWritesWindow;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryConnections;
+    private final Counter fallbackConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<HikariDataSource> replicaPools,
+                                    Selection selection,
+                                    Duration maxLag,
+                                    Duration readYourWritesWindow,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.selection = selection;
+        this.maxLag = maxLag;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.replicas = new ArrayList<>(replicaPools.size());
+        for (HikariDataSource pool : replicaPools) {
+            replicas.add(new Replica(pool, meterRegistry));
+        }
+        this.primaryConnections = Counter.builder("datasource.routing.connections")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        this.fallbackConnections = Counter.builder("datasource.routing.connections")
+                .tag("target", "fallback")
+                .description("Read-only connections served by the primary because no replica was usable")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code read} against the primary even in a read-only transaction, for reads
+     * whose result outlives the request (cache fills), where replica lag would stick.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        Boolean outer = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (outer == null) {
+                PRIMARY_ONLY.remove();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            pinAfterCommit();
+            return primary.getConnection();
+        }
+        if (PRIMARY_ONLY.get() == null && !ReadYourWrites.pinned()) {
+            Replica replica = select();
+            if (replica != null) {
+                try {
+                    Connection connection = replica.pool.getConnection();
+                    replica.connections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+            fallbackConnections.increment();
+        } else {
+            primaryConnections.increment();
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Lets pool metadata (Actuator, Hikari metrics) see the primary pool.
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG)) {
+                rs.next();
+                replica.checked(rs.getBoolean("replicating"), rs.getDouble("lag"));
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private Replica select() {
+        int count = replicas.size();
+        // Rotating start: round robin, and ties spread evenly for least-loaded.
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        Replica best = null;
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (!replica.healthy) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return replica;
+            }
+            if (best == null || replica.load() < best.load()) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A read-write transaction that took a primary connection may write; once it commits,
+     * the client reads from the primary for the window.
+     */
+    private void pinAfterCommit() {
+        if (readYourWritesWindow.isZero() || !TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReadYourWrites.wrote(readYourWritesWindow);
+            }
+        });
+    }
+
+    private final class Replica {
+        private final HikariDataSource pool;
+        private final Counter connections;
+        // Unusable until the first health check passes.
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.connections = Counter.builder("datasource.routing.connections")
+                    .tag("target", pool.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", this, replica -> replica.healthy ? 1 : 0)
+                    .tag("replica", pool.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.lag", this, replica -> replica.lagSeconds)
+                    .tag("replica", pool.getPoolName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        int load() {
+            HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+            return stats == null ? 0 : stats.getActiveConnections() + stats.getThreadsAwaitingConnection();
+        }
+
+        void checked(boolean replicating, double lagSeconds) {
+            this.lagSeconds = lagSeconds;
+            boolean usable = replicating && lagSeconds <= maxLag.toMillis() / 1000.0;
+            if (usable != healthy) {
+                if (usable) {
+                    logger.info("Replica {} is in use ({} s behind)", pool.getPoolName(), lagSeconds);
+                } else if (!replicating) {
+                    logger.warn("Replica {} is not receiving WAL from the primary; reading from the primary",
+                            pool.getPoolName());
+                } else {
+                    logger.warn("Replica {} is {} s behind, over {}; reading from the primary",
+                            pool.getPoolName(), lagSeconds, maxLag);
+                }
+            }
+            healthy = usable;
+        }
+
+        void markDown(SQLException e) {
+            if (healthy) {
+                logger.warn("Replica {} is unreachable; reading from the primary: {}", pool.getPoolName(),
+                        e.getMessage());
+            }
+            healthy = false;
+        }
+    }
+}
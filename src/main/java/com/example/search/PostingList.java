@@ -0,0 +1,64 @@
+package com.example.search;
+
+import java.util.Arrays;
+
+/**
+ * Append-only, strictly increasing list of document numbers stored as variable-length
+ * deltas: dense postings (common trigrams) cost about one byte per document.
+ */
+final class PostingList {
+    private byte[] data = new byte[8];
+    private int length;
+    private int count;
+    private int last = -1;
+
+    void add(int doc) {
+        if (doc <= last) {
+            throw new IllegalArgumentException("Postings must be appended in increasing order");
+        }
+        int delta = doc - last;
+        last = doc;
+        count++;
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Decodes up to {@code max} entries into {@code out} starting at {@code offset}.
+     *
+     * @return the number of entries written
+     */
+    int decodeInto(int[] out, int offset, int max) {
+        int written = 0;
+        int doc = -1;
+        int position = 0;
+        while (position < length && written < max) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+            out[offset + written++] = doc;
+        }
+        return written;
+    }
+
+    long estimateBytes() {
+        // object header + fields, array header + payload
+        return 32 + 16 + data.length;
+    }
+}
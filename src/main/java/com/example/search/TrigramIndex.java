@@ -0,0 +1,274 @@
+package com.example.search;
+
+import com.example.dto.UserSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Inverted index from character trigrams of a user's name and email to the documents
+ * containing them. Every indexed user gets a fresh document number, so postings are only
+ * ever appended; an update or delete tombstones the old document, and {@link #compact()}
+ * rebuilds without the tombstones once they pile up. Values are indexed with two leading
+ * pad characters, which makes one- and two-character queries prefix lookups.
+ *
+ * <p>Not thread-safe; {@link UserSuggestIndex} guards it.
+ */
+final class TrigramIndex {
+    private static final char PAD = '\u0001';
+    private static final int MAX_CANDIDATES = 50_000;
+    // One- and two-character queries are a single prefix gram that every candidate fully
+    // matches, so only the name-length tie-break is left to rank; a sample is enough.
+    private static final int MAX_PREFIX_CANDIDATES = 2_000;
+    private static final double MIN_MATCH_RATIO = 0.6;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final LongIntHashMap docByUser;
+    private final BitSet deleted = new BitSet();
+    private long[] userIds;
+    private String[] names;
+    private String[] emails;
+    private int docCount;
+    private int deletedCount;
+
+    TrigramIndex(int expectedUsers) {
+        int capacity = Math.max(16, expectedUsers);
+        docByUser = new LongIntHashMap(capacity);
+        userIds = new long[capacity];
+        names = new String[capacity];
+        emails = new String[capacity];
+    }
+
+    void upsert(long userId, String name, String email) {
+        remove(userId);
+        if (docCount == userIds.length) {
+            int capacity = docCount + (docCount >> 1);
+            userIds = Arrays.copyOf(userIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+        }
+        int doc = docCount++;
+        userIds[doc] = userId;
+        names[doc] = name;
+        emails[doc] = email;
+        docByUser.put(userId, doc);
+
+        for (long gram : distinctTrigrams(name, email)) {
+            postings.computeIfAbsent(gram, key -> new PostingList()).add(doc);
+        }
+    }
+
+    void remove(long userId) {
+        int doc = docByUser.remove(userId);
+        if (doc >= 0) {
+            deleted.set(doc);
+            deletedCount++;
+            names[doc] = null;
+            emails[doc] = null;
+        }
+    }
+
+    boolean needsCompaction() {
+        return deletedCount > 1024 && deletedCount * 4 > docCount;
+    }
+
+    TrigramIndex compact() {
+        TrigramIndex compacted = new TrigramIndex(size());
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted.get(doc)) {
+                compacted.upsert(userIds[doc], names[doc], emails[doc]);
+            }
+        }
+        return compacted;
+    }
+
+    int size() {
+        return docByUser.size();
+    }
+
+    int trigramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Users whose name or email contains at least 60% of the query's trigrams, best first:
+     * more matching trigrams, then a prefix match, then a full substring match, then the
+     * shorter name. Candidates come from the rarest postings only; by pigeonhole any
+     * qualifying user appears in one of them.
+     */
+    List<UserSuggestion> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        long[] grams = queryTrigrams(normalized);
+        int minMatch = Math.max(1, (int) Math.ceil(grams.length * MIN_MATCH_RATIO));
+
+        PostingList[] lists = new PostingList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+        }
+        Arrays.sort(lists, Comparator.nullsFirst(Comparator.comparingInt(PostingList::count)));
+
+        int maxCandidates = normalized.length() < 3 ? MAX_PREFIX_CANDIDATES : MAX_CANDIDATES;
+        int[] candidates = new int[maxCandidates];
+        int found = 0;
+        for (int i = 0; i < grams.length - minMatch + 1 && found < maxCandidates; i++) {
+            if (lists[i] != null) {
+                found += lists[i].decodeInto(candidates, found, maxCandidates - found);
+            }
+        }
+        Arrays.sort(candidates, 0, found);
+
+        String[] gramText = new String[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            gramText[i] = text(grams[i]);
+        }
+
+        PriorityQueue<Scored> best = new PriorityQueue<>(limit + 1, Scored.ORDER);
+        int previous = -1;
+        for (int i = 0; i < found; i++) {
+            int doc = candidates[i];
+            if (doc == previous || deleted.get(doc)) {
+                continue;
+            }
+            previous = doc;
+            int matched = 0;
+            for (String gram : gramText) {
+                if (contains(names[doc], gram) || contains(emails[doc], gram)) {
+                    matched++;
+                }
+            }
+            if (matched < minMatch) {
+                continue;
+            }
+            int bonus = (startsWith(names[doc], normalized) || startsWith(emails[doc], normalized) ? 2 : 0)
+                    + (containsText(names[doc], normalized) || containsText(emails[doc], normalized) ? 1 : 0);
+            best.add(new Scored(doc, matched, bonus, names[doc].length()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<UserSuggestion> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Scored scored = best.poll();
+            result.add(new UserSuggestion(userIds[scored.doc], names[scored.doc], emails[scored.doc],
+                    (double) scored.matched / grams.length));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Rough retained size: arrays, stored strings (compact Latin-1 layout), postings and
+     * map overhead.
+     */
+    long estimateBytes() {
+        long bytes = 16 + userIds.length * 8L + 2 * (16 + names.length * 4L) + deleted.size() / 8;
+        bytes += docByUser.estimateBytes();
+        for (int doc = 0; doc < docCount; doc++) {
+            if (names[doc] != null) {
+                bytes += 40 + names[doc].length() + 40 + emails[doc].length();
+            }
+        }
+        bytes += 16 + Integer.highestOneBit(Math.max(1, postings.size())) * 2 * 4L;
+        for (PostingList list : postings.values()) {
+            bytes += 32 + 16 + list.estimateBytes();
+        }
+        return bytes;
+    }
+
+    private static long[] distinctTrigrams(String name, String email) {
+        long[] grams = new long[name.length() + email.length() + 4];
+        int count = addTrigrams(normalize(name), grams, 0);
+        count = addTrigrams(normalize(email), grams, count);
+        Arrays.sort(grams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static int addTrigrams(String value, long[] out, int offset) {
+        String padded = "" + PAD + PAD + value;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            out[offset++] = gram(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+        }
+        return offset;
+    }
+
+    private static long[] queryTrigrams(String query) {
+        if (query.length() == 1) {
+            return new long[]{gram(PAD, PAD, query.charAt(0))};
+        }
+        if (query.length() == 2) {
+            return new long[]{gram(PAD, query.charAt(0), query.charAt(1))};
+        }
+        long[] grams = new long[query.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = gram(query.charAt(i), query.charAt(i + 1), query.charAt(i + 2));
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static String text(long gram) {
+        return new String(new char[]{(char) (gram >>> 32), (char) (gram >>> 16), (char) gram});
+    }
+
+    private static String normalize(String value) {
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            normalized.append(Character.toLowerCase(value.charAt(i)));
+        }
+        return normalized.toString().trim();
+    }
+
+    /**
+     * Case-insensitive trigram test; a leading pad anchors the rest of the gram at the
+     * start of the value.
+     */
+    private static boolean contains(String value, String gram) {
+        if (gram.charAt(0) == PAD) {
+            String prefix = gram.charAt(1) == PAD ? gram.substring(2) : gram.substring(1);
+            return startsWith(value, prefix);
+        }
+        return containsText(value, gram);
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private static boolean containsText(String value, String text) {
+        for (int i = 0; i + text.length() <= value.length(); i++) {
+            if (value.regionMatches(true, i, text, 0, text.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Scored(int doc, int matched, int bonus, int nameLength) {
+        /**
+         * Worst first, so the queue head is the one to evict.
+         */
+        static final Comparator<Scored> ORDER = Comparator.comparingInt(Scored::matched)
+                .thenComparingInt(Scored::bonus)
+                .thenComparing(Comparator.comparingInt(Scored::nameLength).reversed());
+    }
+}
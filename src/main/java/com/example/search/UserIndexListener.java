@@ -0,0 +1,66 @@
+package com.example.search;
+
+import com.example.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * JPA lifecycle hook feeding {@link UserSuggestIndex}. Hibernate instantiates listeners
+ * itself (the native {@code UserDao} path has no Spring context at all), so the index is
+ * handed over through a static holder; without one the listener does nothing.
+ * <p>
+ * Inside a Spring transaction changes are applied after commit, so a rolled-back write
+ * never shows up in suggestions. Outside one they are applied straight away.
+ */
+public class UserIndexListener {
+    private static volatile UserSuggestIndex index;
+
+    static void bind(UserSuggestIndex suggestIndex) {
+        index = suggestIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(User user) {
+        long id = user.getId();
+        String name = user.getName();
+        String email = user.getEmail();
+        apply(target -> target.upsert(id, name, email));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        long id = user.getId();
+        apply(target -> target.remove(id));
+    }
+
+    /**
+     * For deletes issued as a statement, which never load the entity and so skip
+     * {@link PostRemove}.
+     */
+    public static void onStatementDelete(long userId) {
+        apply(target -> target.remove(userId));
+    }
+
+    private static void apply(Consumer<UserSuggestIndex> change) {
+        UserSuggestIndex target = index;
+        if (target == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.accept(target);
+                }
+            });
+        } else {
+            change.accept(target);
+        }
+    }
+}
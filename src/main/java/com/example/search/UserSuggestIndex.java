@@ -0,0 +1,216 @@
+package com.example.search;
+
+import com.example.dto.UserSuggestion;
+import com.example.repository.UserRepository;
+import com.example.routing.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead over user names and emails, backed by an in-memory {@link TrigramIndex}.
+ * Built from a table scan once the application is ready and kept current by
+ * {@link UserIndexListener}; bulk SQL paths that bypass the entity lifecycle call
+ * {@link #requestRebuild()} instead. Until the first build finishes suggestions are empty.
+ * <p>
+ * Changes arriving while a rebuild scans the table are applied to the live index and
+ * also queued, then replayed on the new index before it is swapped in, so none is lost.
+ */
+@Component
+public class UserSuggestIndex {
+    private static final Logger logger = LogManager.getLogger(UserSuggestIndex.class);
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    private final boolean enabled;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private TrigramIndex index = new TrigramIndex(16);
+    private List<Consumer<TrigramIndex>> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    public UserSuggestIndex(@Value("${app.suggest.enabled:true}") boolean enabled,
+                            UserRepository userRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("users.suggest.index.users", this, suggest -> suggest.read(index -> (double) index.size()))
+                .register(meterRegistry);
+        Gauge.builder("users.suggest.index.bytes", this, suggest -> suggest.read(index -> (double) index.estimateBytes()))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        UserIndexListener.bind(this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        requestRebuild();
+    }
+
+    /**
+     * Starts a background rebuild; cheap to call after every bulk change. While a rebuild
+     * is scanning, the request marks the index dirty and the running rebuild scans once
+     * more, since its scan may have missed the change.
+     */
+    public void requestRebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuildRequested.set(true);
+        if (!rebuilding.get()) {
+            Thread thread = new Thread(this::runRequestedRebuilds, "user-suggest-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Rebuilds from the table on the calling thread; if another rebuild is running, leaves
+     * it one more pass instead.
+     */
+    public void rebuild() {
+        if (enabled) {
+            rebuildRequested.set(true);
+            runRequestedRebuilds();
+        }
+    }
+
+    private void runRequestedRebuilds() {
+        // Re-checked after the release: a request landing between the last pass and the
+        // release saw the flag still held and left its pass to us.
+        while (rebuildRequested.get() && rebuilding.compareAndSet(false, true)) {
+            try {
+                while (rebuildRequested.getAndSet(false)) {
+                    rebuildOnce();
+                }
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+    }
+
+    private void rebuildOnce() {
+        long started = System.nanoTime();
+        try {
+            write(() -> pendingDuringRebuild = new ArrayList<>());
+            // From the primary: a rebuild after a bulk change must not miss it on a lagging replica.
+            TrigramIndex fresh = ReplicaRoutingDataSource.onPrimary(() -> {
+                TrigramIndex scanned = new TrigramIndex((int) Math.min(userRepository.count(), Integer.MAX_VALUE));
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<Object[]> users = userRepository.streamAllForSuggest()) {
+                        users.forEach(row -> scanned.upsert((Long) row[0], (String) row[1], (String) row[2]));
+                    }
+                });
+                return scanned;
+            });
+
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild.forEach(change -> change.accept(fresh));
+                pendingDuringRebuild = null;
+                index = fresh;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logFootprint(fresh, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            write(() -> pendingDuringRebuild = null);
+            logger.error("User suggest index rebuild failed", e);
+        }
+    }
+
+    public void upsert(long userId, String name, String email) {
+        change(target -> target.upsert(userId, name, email));
+    }
+
+    public void remove(long userId) {
+        change(target -> target.remove(userId));
+    }
+
+    /**
+     * Best matches for {@code query} by trigram overlap with name or email.
+     */
+    public List<UserSuggestion> suggest(String query, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must be 1 to " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (!enabled || !ready) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(Consumer<TrigramIndex> change) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            } else if (index.needsCompaction()) {
+                index = index.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<TrigramIndex, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void logFootprint(TrigramIndex built, long elapsedMillis) {
+        long bytes = built.estimateBytes();
+        long perMillion = built.size() == 0 ? 0 : bytes * 1_000_000 / built.size();
+        logger.info("User suggest index built in {} ms: {} users, {} trigrams, ~{} MiB (~{} MiB per million users)",
+                elapsedMillis, built.size(), built.trigramCount(), bytes >> 20, perMillion >> 20);
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.service;
+
+import com.example.cache.UserCache;
+import com.example.changes.UserChangeFeed;
+import com.example.dto.BulkOperationResult;
+import com.example.dto.UserChange.Operation;
+import com.example.dto.UserFilter;
+import com.example.dto.UserPatchRequest;
+import com.example.search.UserSuggestIndex;
+import com.example.stats.UserStats;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Set-based delete and update of every user matching a {@link UserFilter}. Each operation
+ * walks the id space in fixed-size ranges, each starting at the next matching id, and
+ * runs one DML statement per range in its own transaction, so locks are held and WAL is
+ * generated for one range at a time rather than for the whole match set. A failure stops
+ * the walk; ranges already committed stay applied and the count so far is lost with the
+ * exception.
+ * <p>
+ * With the change feed on, each range also records which users it changed, in the same
+ * transaction: deletes are restricted to the ids selected first, updates are followed by
+ * a read of the matching ids and their new versions.
+ */
+@Service
+public class UserBulkService {
+    private static final Pattern DOMAIN = Pattern.compile("[A-Za-z0-9.-]+\\.[A-Za-z]{2,}");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate chunkTransaction;
+    private final UserCache userCache;
+    private final UserSuggestIndex suggestIndex;
+    private final UserStats userStats;
+    private final UserChangeFeed changeFeed;
+    private final long chunkSize;
+
+    public UserBulkService(EntityManager entityManager,
+                           PlatformTransactionManager transactionManager,
+                           UserCache userCache,
+                           UserSuggestIndex suggestIndex,
+                           UserStats userStats,
+                           UserChangeFeed changeFeed,
+                           @Value("${app.users.bulk-chunk-size:10000}") long chunkSize) {
+        this.entityManager = entityManager;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.userCache = userCache;
+        this.suggestIndex = suggestIndex;
+        this.userStats = userStats;
+        this.changeFeed = changeFeed;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkOperationResult deleteUsers(UserFilter filter) {
+        return execute("DELETE FROM User u", Map.of(), filter, Operation.DELETED);
+    }
+
+    /**
+     * Sets {@code name} and/or {@code age} on every matching user and bumps their version.
+     * Email cannot be bulk-assigned because it is unique.
+     */
+    public BulkOperationResult updateUsers(UserFilter filter, UserPatchRequest changes) {
+        if (changes.getEmail() != null) {
+            throw new IllegalArgumentException("Email cannot be changed in a bulk update");
+        }
+        Map<String, Object> assignments = new LinkedHashMap<>();
+        if (changes.getName() != null) {
+            assignments.put("name", changes.getName());
+        }
+        if (changes.getAge() != null) {
+            assignments.put("age", changes.getAge());
+        }
+        if (assignments.isEmpty()) {
+            throw new IllegalArgumentException("Bulk update must set name or age");
+        }
+        // Entity callbacks do not run for DML; keep Last-Modified moving with the version.
+        assignments.put("updatedAt", LocalDateTime.now());
+
+        StringBuilder statement = new StringBuilder("UPDATE VERSIONED User u SET ");
+        String separator = "";
+        for (String field : assignments.keySet()) {
+            statement.append(separator).append("u.").append(field).append(" = :set_").append(field);
+            separator = ", ";
+        }
+        return execute(statement.toString(), assignments, filter, Operation.UPDATED);
+    }
+
+    private BulkOperationResult execute(String statement, Map<String, Object> assignments, UserFilter filter,
+                                        Operation operation) {
+        String where = whereClause(filter);
+        long start = System.nanoTime();
+
+        String dml = statement + " WHERE u.id >= :fromId AND u.id < :toId" + where;
+        long affected = 0;
+        int chunks = 0;
+        Long fromId = chunkTransaction.execute(status -> nextIdFrom(Long.MIN_VALUE, where, filter));
+        while (fromId != null) {
+            long rangeStart = fromId;
+            long rangeEnd = fromId + chunkSize;
+            Integer rows = chunkTransaction.execute(status -> {
+                int updated;
+                if (changeFeed.isEnabled() && operation == Operation.DELETED) {
+                    updated = deleteRecorded(statement, where, filter, rangeStart, rangeEnd);
+                } else {
+                    Query query = entityManager.createQuery(dml)
+                            .setParameter("fromId", rangeStart)
+                            .setParameter("toId", rangeEnd);
+                    assignments.forEach((field, value) -> query.setParameter("set_" + field, value));
+                    bindFilter(query, filter);
+                    updated = query.executeUpdate();
+                    if (updated > 0 && changeFeed.isEnabled()) {
+                        recordUpdated(where, filter, rangeStart, rangeEnd);
+                    }
+                }
+                if (updated > 0) {
+                    userCache.evictAll();
+                }
+                return updated;
+            });
+            affected += rows;
+            chunks++;
+            // Jump to the next matching id instead of visiting ranges with nothing to change.
+            fromId = chunkTransaction.execute(status -> nextIdFrom(rangeEnd, where, filter));
+        }
+        if (affected > 0) {
+            // Statement-level DML skips the entity listeners; rebuild rather than diff.
+            suggestIndex.requestRebuild();
+            userStats.requestReconcile();
+        }
+        return new BulkOperationResult(affected, chunks, elapsedMillis(start));
+    }
+
+    /**
+     * Deletes only ids read first, so every row the statement removes is known; a row
+     * committed into the range in between is left for the next run. Ids that survive
+     * (changed to no longer match) are not recorded.
+     */
+    private int deleteRecorded(String statement, String where, UserFilter filter, long fromId, long toId) {
+        Query select = entityManager.createQuery(
+                        "SELECT u.id FROM User u WHERE u.id >= :fromId AND u.id < :toId" + where)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId);
+        bindFilter(select, filter);
+        @SuppressWarnings("unchecked")
+        List<Long> ids = select.getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Query delete = entityManager.createQuery(statement + " WHERE u.id IN :ids" + where)
+                .setParameter("ids", ids);
+        bindFilter(delete, filter);
+        int deleted = delete.executeUpdate();
+
+        Set<Long> removed = new HashSet<>(ids);
+        if (deleted < ids.size()) {
+            removed.removeAll(entityManager.createQuery("SELECT u.id FROM User u WHERE u.id IN :ids", Long.class)
+                    .setParameter("ids", ids)
+                    .getResultList());
+        }
+        changeFeed.recordAll(removed, Operation.DELETED, Map.of());
+        return deleted;
+    }
+
+    /**
+     * Every row the update touched still matches (it cannot change the filtered columns)
+     * and is locked by it; a row inserted since would be recorded too, which is harmless.
+     */
+    private void recordUpdated(String where, UserFilter filter, long fromId, long toId) {
+        Query select = entityManager.createQuery(
+                        "SELECT u.id, u.version FROM User u WHERE u.id >= :fromId AND u.id < :toId" + where)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId);
+        bindFilter(select, filter);
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object row : select.getResultList()) {
+            Object[] columns = (Object[]) row;
+            versions.put((Long) columns[0], (Long) columns[1]);
+        }
+        changeFeed.recordAll(versions.keySet(), Operation.UPDATED, versions);
+    }
+
+    private Long nextIdFrom(long fromId, String where, UserFilter filter) {
+        Query query = entityManager.createQuery("SELECT min(u.id) FROM User u WHERE u.id >= :fromId" + where)
+                .setParameter("fromId", fromId);
+        bindFilter(query, filter);
+        return (Long) query.getSingleResult();
+    }
+
+    private static String whereClause(UserFilter filter) {
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter is required for bulk operations");
+        }
+        StringBuilder where = new StringBuilder();
+        if (filter.getEmailDomain() != null) {
+            if (!DOMAIN.matcher(filter.getEmailDomain()).matches()) {
+                throw new IllegalArgumentException("Invalid email domain: " + filter.getEmailDomain());
+            }
+            where.append(" AND lower(u.email) LIKE :emailSuffix");
+        }
+        if (filter.getCreatedBefore() != null) {
+            where.append(" AND u.createdAt < :createdBefore");
+        }
+        if (filter.getCreatedAfter() != null) {
+            where.append(" AND u.createdAt >= :createdAfter");
+        }
+        return where.toString();
+    }
+
+    private static void bindFilter(Query query, UserFilter filter) {
+        if (filter.getEmailDomain() != null) {
+            // The domain pattern admits no LIKE wildcards, so no escaping is needed.
+            query.setParameter("emailSuffix", "%@" + filter.getEmailDomain().toLowerCase());
+        }
+        if (filter.getCreatedBefore() != null) {
+            query.setParameter("createdBefore", filter.getCreatedBefore());
+        }
+        if (filter.getCreatedAfter() != null) {
+            query.setParameter("createdAfter", filter.getCreatedAfter());
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
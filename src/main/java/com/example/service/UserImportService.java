@@ -0,0 +1,242 @@
+package com.example.service;
+
+import com.example.cache.EmailBloomFilter;
+import com.example.changes.UserChangeFeed;
+import com.example.dto.ImportRejection;
+import com.example.dto.ImportReport;
+import com.example.search.UserSuggestIndex;
+import com.example.stats.UserStats;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.util.PSQLException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Bulk CSV import over the PostgreSQL COPY protocol. Rows are streamed into a temporary
+ * staging table, checked there with set-based SQL, and merged into {@code users} with
+ * {@code ON CONFLICT (email) DO NOTHING}, so bad rows and taken emails end up in the
+ * report instead of aborting the load.
+ * <p>
+ * Rejections report the line of the file a record starts on. The staging table only
+ * numbers records, so the stream is scanned on its way to COPY for the records whose
+ * line differs from their number (the header, quoted fields with line breaks).
+ */
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String SQL_STATE_BAD_COPY_FORMAT = "22P04";
+    private static final int EMAIL_FETCH_SIZE = 5000;
+
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE users_import (" +
+            "line bigint GENERATED ALWAYS AS IDENTITY, " +
+            "name text, email text, age text, reject text) ON COMMIT DROP";
+
+    private static final String COPY_STAGING = "COPY users_import (name, email, age) " +
+            "FROM STDIN WITH (FORMAT csv, HEADER %s)";
+
+    private static final String MARK_REJECTS = "UPDATE users_import s SET reject = CASE " +
+            "WHEN s.name IS NULL OR btrim(s.name) = '' OR length(s.name) > 100 THEN 'INVALID_NAME' " +
+            "WHEN s.email IS NULL OR length(s.email) > 100 OR s.email !~ '^[^@\\s]+@[^@\\s]+$' THEN 'INVALID_EMAIL' " +
+            "WHEN s.age IS NULL OR s.age !~ '^\\d{1,9}$' THEN 'INVALID_AGE' " +
+            "WHEN EXISTS (SELECT 1 FROM users_import d WHERE d.email = s.email AND d.line < s.line) " +
+            "THEN 'DUPLICATE_IN_FILE' " +
+            "WHEN EXISTS (SELECT 1 FROM users u WHERE u.email = s.email) THEN 'DUPLICATE_EMAIL' " +
+            "END";
+
+    // Each row takes its own nextval: with the pooled optimizer Hibernate only ever uses
+    // the block ending at a value it fetched, so ids handed out here never overlap it.
+    private static final String MERGE = "WITH inserted AS (" +
+            "INSERT INTO users (id, name, email, age, created_at) " +
+            "SELECT nextval('users_seq'), s.name, s.email, s.age::int, LOCALTIMESTAMP " +
+            "FROM users_import s WHERE s.reject IS NULL ORDER BY s.line " +
+            "ON CONFLICT (email) DO NOTHING RETURNING id, email)%s " +
+            "UPDATE users_import s SET reject = 'DUPLICATE_EMAIL' WHERE s.reject IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM inserted i WHERE i.email = s.email)";
+
+    // Spliced into MERGE when the change feed is on (see UserChangeLog).
+    private static final String RECORD_CHANGES = ", changes AS (" +
+            "INSERT INTO user_changes (user_id, operation, version, changed_at) " +
+            "SELECT i.id, 'CREATED', 0, LOCALTIMESTAMP FROM inserted i)";
+
+    private final DataSource dataSource;
+    private final UserSuggestIndex suggestIndex;
+    private final UserStats userStats;
+    private final UserChangeFeed changeFeed;
+    private final EmailBloomFilter emailFilter;
+
+    @Value("${app.import.max-reported-rejections:1000}")
+    private int maxReportedRejections;
+
+    public ImportReport importCsv(InputStream csv, boolean header) {
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                ImportReport report = importCsv(connection, csv, header, started);
+                connection.commit();
+                if (report.getInserted() > 0) {
+                    // COPY bypasses the entity listeners and UserService
+                    suggestIndex.requestRebuild();
+                    userStats.requestReconcile();
+                    changeFeed.wake();
+                }
+                return report;
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (PSQLException e) {
+            if (SQL_STATE_BAD_COPY_FORMAT.equals(e.getSQLState())) {
+                throw new IllegalArgumentException("Malformed CSV: " + e.getMessage());
+            }
+            throw new RuntimeException("Error importing users", e);
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Error importing users", e);
+        }
+    }
+
+    private ImportReport importCsv(Connection connection, InputStream csv, boolean header, long started)
+            throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+
+        SourceLines lines = new SourceLines(
+                new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8), COPY_BUFFER_SIZE), header);
+        long staged = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                String.format(COPY_STAGING, header), lines, COPY_BUFFER_SIZE);
+
+        long rejected;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX ON users_import (email, line)");
+            statement.execute("ANALYZE users_import");
+            statement.executeUpdate(MARK_REJECTS);
+            statement.executeUpdate(String.format(MERGE, changeFeed.isEnabled() ? RECORD_CHANGES : ""));
+            // Before commit, while the staging table exists; an early put only costs a
+            // false positive if the transaction rolls back.
+            statement.setFetchSize(EMAIL_FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery("SELECT email FROM users_import WHERE reject IS NULL")) {
+                while (rs.next()) {
+                    emailFilter.put(rs.getString(1));
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT count(*) FROM users_import WHERE reject IS NOT NULL")) {
+                rs.next();
+                rejected = rs.getLong(1);
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new ImportReport(staged, staged - rejected, elapsedMillis, loadRejections(connection, lines));
+    }
+
+    private List<ImportRejection> loadRejections(Connection connection, SourceLines lines) throws SQLException {
+        List<ImportRejection> rejections = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT line, email, reject FROM users_import WHERE reject IS NOT NULL ORDER BY line LIMIT ?")) {
+            statement.setInt(1, maxReportedRejections);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rejections.add(new ImportRejection(lines.lineOf(rs.getLong(1)), rs.getString(2), rs.getString(3)));
+                }
+            }
+        }
+        return rejections;
+    }
+
+    /**
+     * Passes the CSV through unchanged while following its quoting the way COPY's CSV
+     * parser does, to map staged row numbers to the line each record starts on. Only the
+     * records where that offset changes are remembered.
+     */
+    private static final class SourceLines extends FilterReader {
+        // Record number (the header included) -> line minus record number from there on.
+        private final TreeMap<Long, Long> offsets = new TreeMap<>();
+        private final boolean header;
+        private long line = 1;
+        private long record = 1;
+        private long offset;
+        private boolean quoted;
+        private boolean recordEnded;
+        private boolean afterCarriageReturn;
+
+        SourceLines(Reader in, boolean header) {
+            super(in);
+            this.header = header;
+            offsets.put(1L, 0L);
+        }
+
+        /**
+         * Line of the {@code row}-th staged record.
+         */
+        long lineOf(long row) {
+            long number = header ? row + 1 : row;
+            return number + offsets.floorEntry(number).getValue();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                scan((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int off, int len) throws IOException {
+            int read = super.read(buffer, off, len);
+            for (int i = off; i < off + read; i++) {
+                scan(buffer[i]);
+            }
+            return read;
+        }
+
+        private void scan(char c) {
+            if (c == '\n' && afterCarriageReturn) {
+                // Second half of a CRLF, counted at the CR.
+                afterCarriageReturn = false;
+                return;
+            }
+            afterCarriageReturn = c == '\r';
+            if (recordEnded) {
+                recordEnded = false;
+                record++;
+                if (line - record != offset) {
+                    offset = line - record;
+                    offsets.put(record, offset);
+                }
+            }
+            if (c == '"') {
+                // A doubled quote inside a quoted field toggles twice.
+                quoted = !quoted;
+            } else if (c == '\n' || c == '\r') {
+                line++;
+                recordEnded = !quoted;
+            }
+        }
+    }
+}
@@ -1,48 +1,399 @@
 package com.example.service;
 
+import com.example.cache.EmailBloomFilter;
+import com.example.cache.UserCache;
+import com.example.changes.UserChangeFeed;
+import com.example.dto.BatchCreateResponse;
+import com.example.dto.BatchItemResult;
+import com.example.dto.CursorPage;
+import com.example.dto.UserChange.Operation;
+import com.example.dto.UserField;
+import com.example.dto.UserLookupResponse;
+import com.example.dto.UserPatchRequest;
 import com.example.dto.UserRequest;
+import com.example.dto.UserSearchCriteria;
 import com.example.dto.UserResponse;
+import com.example.dto.UserVersion;
 import com.example.entity.User;
+import com.example.exception.ConflictException;
 import com.example.exception.ResourceNotFoundException;
 import com.example.mapper.UserMapper;
 import com.example.repository.UserRepository;
+import com.example.repository.UserSpecifications;
+import com.example.routing.ReplicaRoutingDataSource;
+import com.example.search.UserIndexListener;
+import com.example.stats.UserStats;
+import com.example.stats.UserStatsCell;
+import com.example.util.UserCursor;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int IN_CLAUSE_CHUNK = 1000;
+    private static final int MAX_LOOKUP_IDS = 1000;
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final UserCache userCache;
+    private final EmailBloomFilter emailFilter;
+    private final UserStats userStats;
+    private final UserChangeFeed changeFeed;
+
+    @Value("${app.users.batch-size:50}")
+    private int batchSize;
 
+    @Value("${app.users.batch-max-items:10000}")
+    private int batchMaxItems;
+
+    /**
+     * The unique constraint on {@code email} is the source of truth; the Bloom filter only
+     * lets us reject likely conflicts with a cheap lookup instead of a failed insert.
+     */
     @Transactional
     public UserResponse createUser(UserRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new ResourceNotFoundException("Email already exists: " + request.getEmail());
-        }
+        rejectIfEmailTaken(request.getEmail());
 
         User user = userMapper.toEntity(request);
-        User savedUser = userRepository.save(user);
+        User savedUser = saveAndFlushUnique(user);
+        userStats.created(savedUser.getCreatedAt(), savedUser.getAge());
+        changeFeed.record(savedUser.getId(), Operation.CREATED, savedUser.getVersion());
+        emailFilter.put(savedUser.getEmail());
         return userMapper.toResponse(savedUser);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Creates many users in one transaction. Invalid requests and emails that are already
+     * taken (in the table or earlier in the same batch) are reported per item instead of
+     * failing the call. Valid rows are persisted with ids from the pooled sequence, so
+     * Hibernate can group them into JDBC batches; the persistence context is flushed and
+     * cleared every {@code batchSize} rows to keep it bounded.
+     */
+    @Transactional
+    public BatchCreateResponse createUsers(List<UserRequest> requests) {
+        if (requests.isEmpty() || requests.size() > batchMaxItems) {
+            throw new IllegalArgumentException("Batch must contain between 1 and " + batchMaxItems + " users");
+        }
+
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        Map<String, Integer> candidates = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            UserRequest request = requests.get(i);
+            if (request == null) {
+                results[i] = BatchItemResult.invalid(i, List.of("Request is required"));
+                continue;
+            }
+            Set<ConstraintViolation<UserRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                results[i] = BatchItemResult.invalid(i, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.toList()));
+            } else if (candidates.putIfAbsent(request.getEmail(), i) != null) {
+                results[i] = BatchItemResult.duplicateEmail(i, request.getEmail());
+            }
+        }
+
+        Set<String> existingEmails = findExistingEmails(candidates.keySet());
+        Map<UserStatsCell, Long> signups = new HashMap<>();
+        Map<Long, Long> created = new LinkedHashMap<>();
+        int pending = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            UserRequest request = requests.get(i);
+            if (existingEmails.contains(request.getEmail())) {
+                results[i] = BatchItemResult.duplicateEmail(i, request.getEmail());
+                continue;
+            }
+
+            User user = userMapper.toEntity(request);
+            entityManager.persist(user);
+            results[i] = BatchItemResult.created(i, user.getId());
+            signups.merge(UserStatsCell.of(user.getCreatedAt(), user.getAge()), 1L, Long::sum);
+            created.put(user.getId(), user.getVersion());
+
+            if (++pending % batchSize == 0) {
+                flushUnique();
+                entityManager.clear();
+            }
+        }
+        flushUnique();
+        entityManager.clear();
+        userStats.apply(signups);
+        changeFeed.recordAll(created.keySet(), Operation.CREATED, created);
+        candidates.keySet().forEach(emailFilter::put);
+
+        return new BatchCreateResponse(Arrays.asList(results));
+    }
+
+    /**
+     * Served from {@link UserCache} when possible. Deliberately not transactional: a cache
+     * hit should not open a transaction or borrow a connection, and on a miss
+     * {@code findById} runs in the repository's own read-only transaction.
+     */
     public UserResponse getUserById(Long id) {
-        User user = userRepository.findById(id)
+        UserResponse user = userCache.get(id, this::loadUser);
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        }
+        return user;
+    }
+
+    /**
+     * Resolved through the natural-id API, so repeated lookups of an email are answered
+     * from the second-level cache instead of a query on {@code email}.
+     */
+    @Transactional(readOnly = true)
+    public UserResponse getUserByEmail(String email) {
+        return userRepository.findByNaturalEmail(email)
+                .map(userMapper::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    }
+
+    /**
+     * Validators for a conditional GET. A cached user answers from memory; otherwise a
+     * version-only projection is read, which is much cheaper than loading and mapping the
+     * entity.
+     */
+    public UserVersion getUserVersion(Long id) {
+        UserResponse cached = userCache.getIfPresent(id);
+        if (cached != null) {
+            return new UserVersion(cached.getVersion(), cached.getUpdatedAt(), cached.getCreatedAt());
+        }
+        return userRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-        return userMapper.toResponse(user);
     }
 
+    /**
+     * Resolves many ids at once: cache hits come from memory and the misses are fetched
+     * with chunked {@code IN} queries. Users come back in the caller's order (duplicates
+     * collapsed) and unknown ids are listed separately instead of failing the call.
+     */
+    public UserLookupResponse<UserResponse> getUsersByIds(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("Lookup must contain between 1 and " + MAX_LOOKUP_IDS + " ids");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, UserResponse> found = userCache.getAll(requested, this::loadUsers);
+
+        List<UserResponse> users = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            UserResponse user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new UserLookupResponse<>(users, missing);
+    }
+
+    /**
+     * Sparse variant of {@link #getUserById}: a cache hit is projected in memory, a miss
+     * selects only the requested columns and is not cached.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getUserFields(Long id, Set<UserField> fields) {
+        UserResponse cached = userCache.getIfPresent(id);
+        if (cached != null) {
+            return UserField.project(cached, fields);
+        }
+        return userRepository.findFieldsById(id, fields)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+    }
+
+    /**
+     * Sparse variant of {@link #getUsersByIds}; cached users are projected in memory and
+     * the rest come from one projection query.
+     */
+    @Transactional(readOnly = true)
+    public UserLookupResponse<Map<String, Object>> getUsersByIds(List<Long> ids, Set<UserField> fields) {
+        if (ids.isEmpty() || ids.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("Lookup must contain between 1 and " + MAX_LOOKUP_IDS + " ids");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, Map<String, Object>> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : requested) {
+            UserResponse cached = userCache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, UserField.project(cached, fields));
+            } else {
+                uncached.add(id);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            Set<UserField> selected = withKeys(fields, UserField.ID);
+            for (Map<String, Object> row : userRepository.findFieldsByIds(uncached, selected)) {
+                found.put((Long) row.get(UserField.ID.getAttribute()), retain(row, fields, selected));
+            }
+        }
+
+        List<Map<String, Object>> users = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Map<String, Object> user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new UserLookupResponse<>(users, missing);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> getUsers(int limit, String after, String sort) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        UserCursor.Order order = UserCursor.Order.fromParam(sort);
+        UserCursor cursor = after != null ? UserCursor.decode(after, order) : null;
+
+        // One extra row tells us whether another page exists without a COUNT query.
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<User> users;
+        if (order == UserCursor.Order.ID) {
+            users = userRepository.findPageAfterId(cursor != null ? cursor.getId() : 0L, pageable);
+        } else if (cursor == null) {
+            users = userRepository.findFirstPageByCreatedAt(pageable);
+        } else {
+            users = userRepository.findPageAfterCreatedAt(cursor.getCreatedAt(), cursor.getId(), pageable);
+        }
+
+        boolean hasMore = users.size() > limit;
+        List<User> page = hasMore ? users.subList(0, limit) : users;
+        String nextCursor = hasMore ? UserCursor.after(page.get(limit - 1), order).encode() : null;
+
+        return new CursorPage<>(page.stream()
+                .map(userMapper::toResponse)
+                .collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Sparse variant of {@link #getUsers}: same ordering and cursors, but only the
+     * requested columns (plus the sort keys the cursor needs) are selected.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> getUsers(int limit, String after, String sort, Set<UserField> fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        UserCursor.Order order = UserCursor.Order.fromParam(sort);
+        UserCursor cursor = after != null ? UserCursor.decode(after, order) : null;
+
+        List<Map<String, Object>> rows;
+        Set<UserField> selected;
+        if (order == UserCursor.Order.ID) {
+            selected = withKeys(fields, UserField.ID);
+            rows = userRepository.findFieldsAfterId(cursor != null ? cursor.getId() : 0L, selected, limit + 1);
+        } else {
+            selected = withKeys(fields, UserField.ID, UserField.CREATED_AT);
+            rows = userRepository.findFieldsAfterCreatedAt(cursor != null ? cursor.getCreatedAt() : null,
+                    cursor != null ? cursor.getId() : 0L, selected, limit + 1);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<Map<String, Object>> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Map<String, Object> last = page.get(limit - 1);
+            nextCursor = UserCursor.after((Long) last.get(UserField.ID.getAttribute()),
+                    (LocalDateTime) last.get(UserField.CREATED_AT.getAttribute()), order).encode();
+        }
+        return new CursorPage<>(page.stream()
+                .map(row -> retain(row, fields, selected))
+                .collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Users matching all given criteria, keyset-paged in id order with the same cursor
+     * format as {@link #getUsers} ({@code sort=id}).
+     */
     @Transactional(readOnly = true)
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
+    public CursorPage<UserResponse> searchUsers(UserSearchCriteria criteria, int limit, String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (criteria.getNamePrefix() != null && criteria.getNamePrefix().isBlank()) {
+            throw new IllegalArgumentException("Name prefix must not be blank");
+        }
+        if (criteria.getMinAge() != null && criteria.getMaxAge() != null && criteria.getMinAge() > criteria.getMaxAge()) {
+            throw new IllegalArgumentException("minAge must not be greater than maxAge");
+        }
+        UserCursor cursor = after != null ? UserCursor.decode(after, UserCursor.Order.ID) : null;
+
+        Specification<User> specification = Specification
+                .where(UserSpecifications.nameStartsWith(criteria.getNamePrefix()))
+                .and(UserSpecifications.ageAtLeast(criteria.getMinAge()))
+                .and(UserSpecifications.ageAtMost(criteria.getMaxAge()))
+                .and(UserSpecifications.createdFrom(criteria.getCreatedFrom()))
+                .and(UserSpecifications.createdBefore(criteria.getCreatedTo()));
+        List<User> users = userRepository.searchAfterId(specification, cursor != null ? cursor.getId() : 0L, limit + 1);
+
+        boolean hasMore = users.size() > limit;
+        List<User> page = hasMore ? users.subList(0, limit) : users;
+        String nextCursor = hasMore ? UserCursor.after(page.get(limit - 1), UserCursor.Order.ID).encode() : null;
+
+        return new CursorPage<>(page.stream()
                 .map(userMapper::toResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Pushes every user to {@code sink} straight off a server-side cursor. Each entity is
+     * detached once mapped, so the persistence context never grows with the table. An
+     * exception thrown by the sink (for example a client disconnect) aborts the loop and
+     * closes the cursor together with its statement.
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<UserResponse> sink) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            users.forEach(user -> {
+                sink.accept(userMapper.toResponse(user));
+                entityManager.detach(user);
+            });
+        }
     }
 
     @Transactional
@@ -50,21 +401,210 @@ public class UserService {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
-        if (!existingUser.getEmail().equals(request.getEmail()) &&
-                userRepository.existsByEmail(request.getEmail())) {
-            throw new ResourceNotFoundException("Email already exists: " + request.getEmail());
+        boolean emailChanged = !existingUser.getEmail().equals(request.getEmail());
+        if (emailChanged) {
+            rejectIfEmailTaken(request.getEmail());
         }
 
+        Integer previousAge = existingUser.getAge();
+        Long previousVersion = existingUser.getVersion();
         userMapper.updateEntity(request, existingUser);
-        User updatedUser = userRepository.save(existingUser);
+        User updatedUser = saveAndFlushUnique(existingUser);
+        userStats.ageChanged(updatedUser.getCreatedAt(), previousAge, updatedUser.getAge());
+        recordUpdate(updatedUser, previousVersion);
+        if (emailChanged) {
+            emailFilter.put(updatedUser.getEmail());
+        }
+        userCache.evict(id);
         return userMapper.toResponse(updatedUser);
     }
 
+    /**
+     * Applies only the non-null fields of {@code request}. {@code User} is
+     * {@code @DynamicUpdate}, so the flush writes just the changed columns plus the version
+     * bump, and nothing at all if the values are unchanged. There is no existence check for a
+     * new email: the unique constraint rejects it on flush. A stale {@code expectedVersion}
+     * or a concurrent writer committing first both surface as {@link ConflictException}
+     * without any row lock being taken.
+     */
+    @Transactional
+    public UserResponse patchUser(Long id, UserPatchRequest request, Long expectedVersion) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new ConflictException("User " + id + " has been modified (version " + user.getVersion() + ")");
+        }
+
+        boolean emailChanged = request.getEmail() != null && !request.getEmail().equals(user.getEmail());
+        Integer previousAge = user.getAge();
+        Long previousVersion = user.getVersion();
+        userMapper.patchEntity(request, user);
+        try {
+            entityManager.flush();
+        } catch (OptimisticLockException e) {
+            throw new ConflictException("User " + id + " has been modified concurrently");
+        } catch (PersistenceException e) {
+            throw translateEmailConflict(e, user.getEmail());
+        }
+        userStats.ageChanged(user.getCreatedAt(), previousAge, user.getAge());
+        recordUpdate(user, previousVersion);
+
+        if (emailChanged) {
+            emailFilter.put(user.getEmail());
+        }
+        userCache.evict(id);
+        return userMapper.toResponse(user);
+    }
+
+    /**
+     * One statement that deletes the row and returns what the stats rollup needs, so there
+     * is no separate read. Going through JDBC (same transaction) also means Hibernate does
+     * not drop the whole {@code User} second-level cache region, as it does after HQL DML;
+     * only this user's entry is evicted, along with the natural-id region, which cannot be
+     * evicted per email.
+     */
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
+        List<UserStatsCell> deleted = jdbcTemplate.query("DELETE FROM users WHERE id = ? RETURNING created_at, age",
+                (rs, row) -> UserStatsCell.of(rs.getObject("created_at", LocalDateTime.class),
+                        rs.getObject("age", Integer.class)), id);
+        if (deleted.isEmpty()) {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
-        userRepository.deleteById(id);
+        userStats.apply(Map.of(deleted.get(0), -1L));
+        changeFeed.record(id, Operation.DELETED, null);
+        Cache secondLevel = entityManager.getEntityManagerFactory().getCache();
+        secondLevel.evict(User.class, id);
+        secondLevel.unwrap(org.hibernate.Cache.class).evictNaturalIdData(User.class);
+        userCache.evict(id);
+        UserIndexListener.onStatementDelete(id);
+    }
+
+    /**
+     * A flush that wrote nothing (same values) leaves the version alone and is not a change.
+     */
+    private void recordUpdate(User user, Long previousVersion) {
+        if (!Objects.equals(user.getVersion(), previousVersion)) {
+            changeFeed.record(user.getId(), Operation.UPDATED, user.getVersion());
+        }
+    }
+
+    private static Set<UserField> withKeys(Set<UserField> fields, UserField... keys) {
+        Set<UserField> selected = EnumSet.copyOf(fields);
+        selected.addAll(Arrays.asList(keys));
+        return selected;
+    }
+
+    /**
+     * Drops the key columns that were selected only for cursors and lookups.
+     */
+    private static Map<String, Object> retain(Map<String, Object> row, Set<UserField> fields,
+                                              Set<UserField> selected) {
+        if (selected.size() != fields.size()) {
+            for (UserField field : selected) {
+                if (!fields.contains(field)) {
+                    row.remove(field.getAttribute());
+                }
+            }
+        }
+        return row;
+    }
+
+    private UserResponse loadUser(Long id) {
+        return cacheFill(() -> userRepository.findById(id)
+                .map(userMapper::toResponse)
+                .orElse(null));
+    }
+
+    /**
+     * Cache fills read the primary: a replica's lag would otherwise stay in the cache
+     * until the user's next write. Without the cache, reads go to a replica.
+     */
+    private <T> T cacheFill(Supplier<T> read) {
+        return userCache.isEnabled() ? ReplicaRoutingDataSource.onPrimary(read) : read.get();
+    }
+
+    /**
+     * Early 409 for the common case. Confirmed with an uncached query: the natural-id
+     * cache can still hold a user deleted by another instance or by bulk DML. The unique
+     * constraint stays the final arbiter ({@link #saveAndFlushUnique}).
+     */
+    private void rejectIfEmailTaken(String email) {
+        if (emailFilter.mightContain(email) && userRepository.existsByEmail(email)) {
+            throw new ConflictException("Email already exists: " + email);
+        }
+    }
+
+    private User saveAndFlushUnique(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailConflict(e, user.getEmail());
+        }
+    }
+
+    private void flushUnique() {
+        try {
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            // Another writer took one of the batch's emails after our existence check.
+            throw translateEmailConflict(e, "one of the batch emails");
+        }
+    }
+
+    private RuntimeException translateEmailConflict(RuntimeException e, String email) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException
+                    && User.EMAIL_CONSTRAINT.equalsIgnoreCase(((ConstraintViolationException) cause).getConstraintName())) {
+                return new ConflictException("Email already exists: " + email);
+            }
+        }
+        return e;
+    }
+
+    private Map<Long, UserResponse> loadUsers(Set<? extends Long> ids) {
+        return cacheFill(() -> loadChunks(ids));
+    }
+
+    private Map<Long, UserResponse> loadChunks(Set<? extends Long> ids) {
+        Map<Long, UserResponse> loaded = new HashMap<>();
+        List<Long> chunk = new ArrayList<>(Math.min(ids.size(), IN_CLAUSE_CHUNK));
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == IN_CLAUSE_CHUNK) {
+                loadChunk(chunk, loaded);
+            }
+        }
+        loadChunk(chunk, loaded);
+        return loaded;
+    }
+
+    private void loadChunk(List<Long> chunk, Map<Long, UserResponse> loaded) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (User user : userRepository.findAllById(chunk)) {
+            loaded.put(user.getId(), userMapper.toResponse(user));
+        }
+        chunk.clear();
+    }
+
+    // Not narrowed by the email filter: its negatives are exact only for this instance, and
+    // a single miss would fail flushUnique and roll back the whole batch instead of being
+    // reported as one DUPLICATE_EMAIL item.
+    private Set<String> findExistingEmails(Set<String> emails) {
+        Set<String> existing = new HashSet<>();
+        List<String> chunk = new ArrayList<>(Math.min(emails.size(), IN_CLAUSE_CHUNK));
+        for (String email : emails) {
+            chunk.add(email);
+            if (chunk.size() == IN_CLAUSE_CHUNK) {
+                existing.addAll(userRepository.findExistingEmails(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            existing.addAll(userRepository.findExistingEmails(chunk));
+        }
+        return existing;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,325 @@
+package com.example.stats;
+
+import com.example.dto.UserStatsResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * User count, age histogram and signups per day, answered from memory. The
+ * {@code user_stats} rollup ({@link UserStatsRollup}) is the durable copy: {@code UserService}
+ * writes its deltas in the same transaction as the user change, and the deltas reach these
+ * counters once that transaction commits. The counters are reloaded from the rollup every
+ * {@code app.stats.refresh-interval}, which picks up other instances' writes, and the
+ * rollup is recounted from {@code users} on {@code app.stats.reconcile-cron}, which repairs
+ * writes that bypass {@code UserService} (native DAO, reactive stack). Bulk DML and CSV
+ * import call {@link #requestReconcile()}.
+ * <p>
+ * A reconciliation takes no locks: it counts {@code users} and reads the rollup in one
+ * snapshot, and writes the difference as one more delta. A writer that commits after the
+ * snapshot adds both its user and its delta, so the difference stays right without it.
+ * <p>
+ * Nothing here scans {@code users} on a request; until the first load finishes, the total
+ * comes from planner statistics and the breakdowns are empty.
+ */
+@Component
+public class UserStats {
+    private static final Logger logger = LogManager.getLogger(UserStats.class);
+    private static final int MAX_DAYS = 366;
+
+    private final boolean enabled;
+    private final UserStatsRollup rollup;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate snapshot;
+    private final Counter drift;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean();
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Counters counters = Counters.of(Map.of());
+    private volatile boolean ready;
+
+    public UserStats(@Value("${app.stats.enabled:true}") boolean enabled,
+                     UserStatsRollup rollup,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.rollup = rollup;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.drift = Counter.builder("users.stats.reconcile.drift")
+                .description("Users the rollup had miscounted, summed over reconciliations")
+                .register(meterRegistry);
+        Gauge.builder("users.stats.total", this, stats -> (double) stats.counters.total.sum())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the counters, recounting first if the rollup is empty but {@code users} is not
+     * (first start after the table was added).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        if (!enabled) {
+            return;
+        }
+        background.execute(() -> {
+            try {
+                Map<UserStatsCell, Long> cells = rollup.load();
+                if (cells.isEmpty() && rollup.usersExist()) {
+                    reconcile();
+                } else {
+                    counters = Counters.of(cells);
+                    ready = true;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Loading user stats failed", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void close() {
+        background.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.refresh-interval:PT10S}",
+            initialDelayString = "${app.stats.refresh-interval:PT10S}")
+    public void refresh() {
+        if (enabled && !reconciling.get()) {
+            counters = Counters.of(rollup.load());
+            ready = true;
+        }
+    }
+
+    /**
+     * Recounts the rollup from {@code users} (one aggregate scan) and reloads the counters.
+     * If another reconciliation is running, it makes one more pass instead, so a recount
+     * still starts after this call.
+     */
+    @Scheduled(cron = "${app.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        if (enabled) {
+            reconcileRequested.set(true);
+            runRequestedReconciles();
+        }
+    }
+
+    /**
+     * {@link #reconcile()} on the background thread; for changes made with statement-level
+     * SQL, whose per-user deltas are not known. Requests that arrive during a pass are
+     * coalesced into one more pass.
+     */
+    public void requestReconcile() {
+        if (enabled) {
+            reconcileRequested.set(true);
+            background.execute(this::runRequestedReconciles);
+        }
+    }
+
+    private void runRequestedReconciles() {
+        // Re-checked after the release: a request landing between the last pass and the
+        // release saw the flag still held and left its pass to us.
+        while (reconcileRequested.get() && reconciling.compareAndSet(false, true)) {
+            try {
+                while (reconcileRequested.getAndSet(false)) {
+                    reconcileOnce();
+                }
+            } finally {
+                reconciling.set(false);
+            }
+        }
+    }
+
+    private void reconcileOnce() {
+        long started = System.nanoTime();
+        try {
+            // One snapshot for both reads, in which every committed user write has its delta.
+            Recount recount = snapshot.execute(status -> new Recount(rollup.load(), rollup.countUsers()));
+            Map<UserStatsCell, Long> corrections = corrections(recount.before(), recount.after());
+            if (!corrections.isEmpty()) {
+                transaction.executeWithoutResult(status -> rollup.add(corrections));
+            }
+            long miscounted = corrections.values().stream().mapToLong(Math::abs).sum();
+            drift.increment(miscounted);
+            counters = Counters.of(rollup.load());
+            ready = true;
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            if (miscounted > 0) {
+                logger.warn("User stats reconciled in {} ms, corrected {} miscounted users", elapsedMillis, miscounted);
+            } else {
+                logger.info("User stats reconciled in {} ms, no drift", elapsedMillis);
+            }
+        } catch (RuntimeException e) {
+            logger.error("User stats reconciliation failed", e);
+        }
+    }
+
+    public void created(LocalDateTime createdAt, Integer age) {
+        apply(Map.of(UserStatsCell.of(createdAt, age), 1L));
+    }
+
+    public void deleted(LocalDateTime createdAt, Integer age) {
+        apply(Map.of(UserStatsCell.of(createdAt, age), -1L));
+    }
+
+    public void ageChanged(LocalDateTime createdAt, Integer previousAge, Integer age) {
+        UserStatsCell from = UserStatsCell.of(createdAt, previousAge);
+        UserStatsCell to = UserStatsCell.of(createdAt, age);
+        if (!from.equals(to)) {
+            apply(Map.of(from, -1L, to, 1L));
+        }
+    }
+
+    /**
+     * Writes {@code deltas} to the rollup in the caller's transaction and applies them to
+     * the counters after it commits.
+     */
+    public void apply(Map<UserStatsCell, Long> deltas) {
+        if (!enabled) {
+            return;
+        }
+        Map<UserStatsCell, Long> sorted = new TreeMap<>(deltas);
+        sorted.values().removeIf(delta -> delta == 0);
+        if (sorted.isEmpty()) {
+            return;
+        }
+        rollup.add(sorted);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counters.add(sorted);
+                }
+            });
+        } else {
+            counters.add(sorted);
+        }
+    }
+
+    /**
+     * @param days          how many days of signups, ending today
+     * @param approximate   take the total from planner statistics instead of the counters
+     */
+    public UserStatsResponse snapshot(int days, boolean approximate) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+        Counters current = counters;
+        boolean counted = enabled && ready;
+        if (counted && !approximate) {
+            return exact(current, days);
+        }
+        OptionalLong estimate = rollup.estimateUserCount();
+        if (counted && estimate.isEmpty()) {
+            // Never analyzed: the counters are the better answer.
+            return exact(current, days);
+        }
+        return new UserStatsResponse(estimate.orElse(0), true,
+                counted ? current.ageHistogram() : Map.of(),
+                counted ? current.signups(days) : Map.of(), LocalDateTime.now());
+    }
+
+    private static UserStatsResponse exact(Counters current, int days) {
+        return new UserStatsResponse(current.total.sum(), false, current.ageHistogram(), current.signups(days),
+                current.loadedAt);
+    }
+
+    /**
+     * Per-cell {@code after - before}, in {@link UserStatsCell} order as the rollup expects.
+     */
+    private static Map<UserStatsCell, Long> corrections(Map<UserStatsCell, Long> before,
+                                                        Map<UserStatsCell, Long> after) {
+        Set<UserStatsCell> cells = new HashSet<>(before.keySet());
+        cells.addAll(after.keySet());
+        Map<UserStatsCell, Long> corrections = new TreeMap<>();
+        for (UserStatsCell cell : cells) {
+            long correction = after.getOrDefault(cell, 0L) - before.getOrDefault(cell, 0L);
+            if (correction != 0) {
+                corrections.put(cell, correction);
+            }
+        }
+        return corrections;
+    }
+
+    private record Recount(Map<UserStatsCell, Long> before, Map<UserStatsCell, Long> after) {
+    }
+
+    /**
+     * The rollup folded into the three shapes the endpoint serves, so a request reads at
+     * most a year of days and a dozen buckets rather than every cell.
+     */
+    private static final class Counters {
+        private final LongAdder total = new LongAdder();
+        private final ConcurrentSkipListMap<Integer, LongAdder> byAgeBucket = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<LocalDate, LongAdder> byDay = new ConcurrentSkipListMap<>();
+        private final LocalDateTime loadedAt = LocalDateTime.now();
+
+        static Counters of(Map<UserStatsCell, Long> cells) {
+            Counters counters = new Counters();
+            counters.add(cells);
+            return counters;
+        }
+
+        void add(Map<UserStatsCell, Long> deltas) {
+            deltas.forEach((cell, delta) -> {
+                total.add(delta);
+                byAgeBucket.computeIfAbsent(cell.ageBucket(), bucket -> new LongAdder()).add(delta);
+                byDay.computeIfAbsent(cell.createdOn(), day -> new LongAdder()).add(delta);
+            });
+        }
+
+        Map<String, Long> ageHistogram() {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            byAgeBucket.forEach((bucket, count) -> {
+                long users = count.sum();
+                if (users != 0) {
+                    histogram.put(UserStatsCell.label(bucket), users);
+                }
+            });
+            return histogram;
+        }
+
+        Map<LocalDate, Long> signups(int days) {
+            LocalDate today = LocalDate.now();
+            Map<LocalDate, Long> signups = new LinkedHashMap<>();
+            for (LocalDate day = today.minusDays(days - 1L); !day.isAfter(today); day = day.plusDays(1)) {
+                LongAdder count = byDay.get(day);
+                signups.put(day, count == null ? 0L : count.sum());
+            }
+            return signups;
+        }
+    }
+}
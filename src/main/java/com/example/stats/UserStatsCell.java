@@ -0,0 +1,56 @@
+package com.example.stats;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * One cell of the stats rollup: users created on a day whose age falls in a ten-year
+ * bucket. {@link #AGE_BUCKET_SQL} computes the same bucket in PostgreSQL and the two must
+ * be kept in step, or reconciliation will report drift on every run.
+ */
+public record UserStatsCell(LocalDate createdOn, int ageBucket) implements Comparable<UserStatsCell> {
+    public static final int UNKNOWN_AGE = -1;
+    static final int BUCKET_WIDTH = 10;
+    static final int OPEN_BUCKET = 100;
+
+    static final String AGE_BUCKET_SQL =
+            "CASE WHEN age IS NULL THEN " + UNKNOWN_AGE +
+            " ELSE LEAST(age, " + OPEN_BUCKET + ") / " + BUCKET_WIDTH + " * " + BUCKET_WIDTH + " END";
+
+    private static final Comparator<UserStatsCell> ORDER =
+            Comparator.comparing(UserStatsCell::createdOn).thenComparingInt(UserStatsCell::ageBucket);
+
+    public static UserStatsCell of(LocalDateTime createdAt, Integer age) {
+        return new UserStatsCell(createdAt.toLocalDate(), ageBucket(age));
+    }
+
+    public static int ageBucket(Integer age) {
+        if (age == null) {
+            return UNKNOWN_AGE;
+        }
+        return Math.min(age, OPEN_BUCKET) / BUCKET_WIDTH * BUCKET_WIDTH;
+    }
+
+    /**
+     * {@code "30-39"}, {@code "100+"} or {@code "unknown"}.
+     */
+    public static String label(int ageBucket) {
+        if (ageBucket == UNKNOWN_AGE) {
+            return "unknown";
+        }
+        if (ageBucket >= OPEN_BUCKET) {
+            return OPEN_BUCKET + "+";
+        }
+        return ageBucket + "-" + (ageBucket + BUCKET_WIDTH - 1);
+    }
+
+    /**
+     * Rollup rows are always locked in this order, so two transactions touching the same
+     * cells cannot deadlock.
+     */
+    @Override
+    public int compareTo(UserStatsCell other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.stats;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * SQL over the {@code user_stats} rollup (see schema.sql). Each cell is spread over
+ * {@link #SHARDS} rows and a transaction adds its deltas to one randomly chosen shard,
+ * so concurrent signups on the same day and age bucket do not queue on one row lock;
+ * readers sum the shards. Writes join the caller's transaction.
+ */
+@Repository
+public class UserStatsRollup {
+    static final int SHARDS = 8;
+
+    private static final String UPSERT = "INSERT INTO user_stats (created_on, age_bucket, shard, users) " +
+            "VALUES (?, ?, ?, ?) ON CONFLICT (created_on, age_bucket, shard) " +
+            "DO UPDATE SET users = user_stats.users + EXCLUDED.users";
+    private static final String LOAD = "SELECT created_on, age_bucket, sum(users) AS users FROM user_stats " +
+            "GROUP BY created_on, age_bucket HAVING sum(users) <> 0";
+    private static final String COUNT_USERS = "SELECT created_at::date AS created_on, " +
+            UserStatsCell.AGE_BUCKET_SQL + " AS age_bucket, count(*) AS users FROM users GROUP BY 1, 2";
+    // What the planner itself does: tuple density from the last ANALYZE/VACUUM scaled to
+    // the table's current size, which pg_relation_size reads from the file system.
+    private static final String PLANNER_ESTIMATE = "SELECT c.reltuples, c.relpages, " +
+            "pg_relation_size(c.oid) / current_setting('block_size')::int AS pages " +
+            "FROM pg_class c WHERE c.oid = to_regclass('users')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserStatsRollup(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds {@code deltas} in one batch; the map must iterate in {@link UserStatsCell} order.
+     */
+    void add(Map<UserStatsCell, Long> deltas) {
+        int shard = ThreadLocalRandom.current().nextInt(SHARDS);
+        List<Object[]> rows = deltas.entrySet().stream()
+                .map(delta -> new Object[]{delta.getKey().createdOn(), delta.getKey().ageBucket(), shard, delta.getValue()})
+                .toList();
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+    }
+
+    Map<UserStatsCell, Long> load() {
+        return cells(LOAD);
+    }
+
+    /**
+     * What the rollup should hold: one aggregate scan of {@code users}.
+     */
+    Map<UserStatsCell, Long> countUsers() {
+        return cells(COUNT_USERS);
+    }
+
+    boolean usersExist() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM users)", Boolean.class));
+    }
+
+    /**
+     * Row count of {@code users} from planner statistics, without touching the table;
+     * empty if it has never been analyzed.
+     */
+    OptionalLong estimateUserCount() {
+        return jdbcTemplate.query(PLANNER_ESTIMATE, rs -> {
+            if (!rs.next() || rs.getFloat("reltuples") < 0) {
+                return OptionalLong.empty();
+            }
+            double tuples = rs.getFloat("reltuples");
+            long statisticsPages = rs.getLong("relpages");
+            if (statisticsPages == 0) {
+                return OptionalLong.of(Math.round(tuples));
+            }
+            return OptionalLong.of(Math.round(tuples / statisticsPages * rs.getLong("pages")));
+        });
+    }
+
+    private Map<UserStatsCell, Long> cells(String sql) {
+        Map<UserStatsCell, Long> cells = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            cells.put(new UserStatsCell(rs.getObject("created_on", LocalDate.class), rs.getInt("age_bucket")),
+                    rs.getLong("users"));
+        });
+        return cells;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Builds HikariCP pools for code that runs outside the Spring context (the native
+ * Hibernate path used by {@code Main}). Pool settings are read from the same
+ * {@code spring.datasource.hikari.*} keys in {@code application.properties} that Spring
+ * Boot uses, so both pools are tuned in one place.
+ */
+public final class DataSourceFactory {
+    private static final String PROPERTIES_FILE = "application.properties";
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari.";
+    private static final String DATA_SOURCE_PROPERTIES = "data-source-properties.";
+
+    private DataSourceFactory() {
+    }
+
+    public static HikariDataSource create(String poolName, String url, String username, String password) {
+        HikariConfig config = new HikariConfig(loadPoolSettings());
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Translates {@code spring.datasource.hikari.maximum-pool-size=20} into Hikari's own
+     * {@code maximumPoolSize=20}, and {@code ...hikari.data-source-properties.x} into
+     * {@code dataSource.x} driver properties.
+     */
+    static Properties loadPoolSettings() {
+        Properties source = new Properties();
+        try (InputStream in = DataSourceFactory.class.getClassLoader().getResourceAsStream(PROPERTIES_FILE)) {
+            if (in != null) {
+                source.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + PROPERTIES_FILE, e);
+        }
+
+        Properties settings = new Properties();
+        for (String key : source.stringPropertyNames()) {
+            if (!key.startsWith(HIKARI_PREFIX)) {
+                continue;
+            }
+            String name = key.substring(HIKARI_PREFIX.length());
+            if (name.startsWith(DATA_SOURCE_PROPERTIES)) {
+                settings.setProperty("dataSource." + name.substring(DATA_SOURCE_PROPERTIES.length()),
+                        source.getProperty(key));
+            } else if (!name.equals("pool-name")) {
+                settings.setProperty(toCamelCase(name), source.getProperty(key));
+            }
+        }
+        return settings;
+    }
+
+    private static String toCamelCase(String kebab) {
+        StringBuilder result = new StringBuilder(kebab.length());
+        boolean upper = false;
+        for (char c : kebab.toCharArray()) {
+            if (c == '-') {
+                upper = true;
+            } else {
+                result.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return result.toString();
+    }
+}
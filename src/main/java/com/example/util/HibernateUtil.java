@@ -1,15 +1,101 @@
 package com.example.util;
 
+import com.example.changes.UserChangeFeed;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.HibernateMetrics;
+
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
 
 public class HibernateUtil {
-    private static final SessionFactory sessionFactory;
+    private static final String NATIVE_POOL_NAME = "user-service-native";
+    private static final String NATIVE_METRICS_NAME = "native";
+    // Overridable with -D in any mode, e.g. to compare runs with and without the L2 cache
+    private static final List<String> CACHE_OVERRIDES =
+            List.of(AvailableSettings.USE_SECOND_LEVEL_CACHE, ConfigSettings.CONFIG_URI);
+
+    private static volatile SessionFactory sessionFactory;
+    private static volatile DataSource sharedDataSource;
+    private static volatile CacheManager sharedCacheManager;
+    private static volatile MeterRegistry meterRegistry;
+    private static volatile UserChangeFeed changeFeed;
+    private static HikariDataSource ownDataSource;
+
+    /**
+     * Makes the native SessionFactory borrow connections from an existing pool (the
+     * Spring Boot datasource) instead of creating its own. Must be called before the
+     * first {@link #getSessionFactory()}.
+     */
+    public static void useDataSource(DataSource dataSource) {
+        sharedDataSource = dataSource;
+    }
+
+    /**
+     * Makes the native SessionFactory use an existing JCache manager for its second-level
+     * cache, so it shares regions with the Spring Data path. Must be called before the
+     * first {@link #getSessionFactory()}.
+     */
+    public static void useCacheManager(CacheManager cacheManager) {
+        sharedCacheManager = cacheManager;
+    }
+
+    /**
+     * Registers the native SessionFactory's statistics (including second-level cache
+     * hits, misses and puts) as {@code hibernate.*} meters tagged
+     * {@code entityManagerFactory=native} once it is built.
+     */
+    public static void useMeterRegistry(MeterRegistry registry) {
+        meterRegistry = registry;
+    }
+
+    /**
+     * Makes the native {@code UserDao} writes record {@code user_changes} rows for the
+     * change feed and wake its sequencer after commit. Without one (standalone, where the
+     * schema has no outbox) nothing is recorded.
+     */
+    public static void useChangeFeed(UserChangeFeed feed) {
+        changeFeed = feed;
+    }
+
+    public static UserChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    public static SessionFactory getSessionFactory() {
+        SessionFactory factory = sessionFactory;
+        if (factory == null) {
+            synchronized (HibernateUtil.class) {
+                if (sessionFactory == null) {
+                    sessionFactory = buildSessionFactory();
+                }
+                factory = sessionFactory;
+            }
+        }
+        return factory;
+    }
+
+    public static synchronized void shutdown() {
+        if (sessionFactory != null && !sessionFactory.isClosed()) {
+            sessionFactory.close();
+        }
+        sessionFactory = null;
+        if (ownDataSource != null) {
+            ownDataSource.close();
+            ownDataSource = null;
+        }
+    }
 
-    static {
+    private static SessionFactory buildSessionFactory() {
         try {
             String configFile = isTestMode() ? "hibernate-test.cfg.xml" : "hibernate.cfg.xml";
 
@@ -17,6 +103,10 @@ public class HibernateUtil {
                     .configure(configFile);
 
             applySystemProperties(registryBuilder);
+            registryBuilder.applySetting(AvailableSettings.DATASOURCE, resolveDataSource(registryBuilder.getSettings()));
+            if (sharedCacheManager != null) {
+                registryBuilder.applySetting(ConfigSettings.CACHE_MANAGER, sharedCacheManager);
+            }
 
             StandardServiceRegistry standardRegistry = registryBuilder.build();
 
@@ -24,21 +114,26 @@ public class HibernateUtil {
                     .getMetadataBuilder()
                     .build();
 
-            sessionFactory = metadata.getSessionFactoryBuilder().build();
+            SessionFactory factory = metadata.getSessionFactoryBuilder().build();
+            if (meterRegistry != null) {
+                HibernateMetrics.monitor(meterRegistry, factory, NATIVE_METRICS_NAME);
+            }
+            return factory;
         } catch (Exception ex) {
             System.err.println("Initial SessionFactory creation failed: " + ex);
-            throw new ExceptionInInitializerError(ex);
+            throw new IllegalStateException("SessionFactory creation failed", ex);
         }
     }
 
-    public static SessionFactory getSessionFactory() {
-        return sessionFactory;
-    }
-
-    public static void shutdown() {
-        if (sessionFactory != null && !sessionFactory.isClosed()) {
-            sessionFactory.close();
+    private static DataSource resolveDataSource(Map<String, Object> settings) {
+        if (sharedDataSource != null) {
+            return sharedDataSource;
         }
+        ownDataSource = DataSourceFactory.create(NATIVE_POOL_NAME,
+                (String) settings.get(AvailableSettings.URL),
+                (String) settings.get(AvailableSettings.USER),
+                (String) settings.get(AvailableSettings.PASS));
+        return ownDataSource;
     }
 
     private static boolean isTestMode() {
@@ -46,6 +141,12 @@ public class HibernateUtil {
     }
 
     private static void applySystemProperties(StandardServiceRegistryBuilder builder) {
+        for (String setting : CACHE_OVERRIDES) {
+            String value = System.getProperty(setting);
+            if (value != null) {
+                builder.applySetting(setting, value);
+            }
+        }
         if (isTestMode()) {
             String url = System.getProperty("hibernate.connection.url");
             String username = System.getProperty("hibernate.connection.username");
@@ -56,4 +157,4 @@ public class HibernateUtil {
             if (password != null) builder.applySetting("hibernate.connection.password", password);
         }
     }
-}
\ No newline at end of file
+}
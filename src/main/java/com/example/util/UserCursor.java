@@ -0,0 +1,101 @@
+package com.example.util;
+
+import com.example.entity.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for paging over {@code users}. The token carries the sort order
+ * it was produced for together with the last row's key, so a page is always resumed with
+ * {@code WHERE key > last} instead of an OFFSET scan.
+ */
+public final class UserCursor {
+
+    public enum Order {
+        ID("id"),
+        CREATED_AT("createdAt");
+
+        private final String param;
+
+        Order(String param) {
+            this.param = param;
+        }
+
+        public static Order fromParam(String value) {
+            for (Order order : values()) {
+                if (order.param.equalsIgnoreCase(value)) {
+                    return order;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort: " + value);
+        }
+    }
+
+    private static final char SEPARATOR = '|';
+
+    private final Order order;
+    private final LocalDateTime createdAt;
+    private final long id;
+
+    private UserCursor(Order order, LocalDateTime createdAt, long id) {
+        this.order = order;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static UserCursor after(User user, Order order) {
+        return after(user.getId(), user.getCreatedAt(), order);
+    }
+
+    public static UserCursor after(long id, LocalDateTime createdAt, Order order) {
+        return new UserCursor(order, order == Order.CREATED_AT ? createdAt : null, id);
+    }
+
+    public static UserCursor decode(String token, Order expectedOrder) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        try {
+            Order order = Order.valueOf(parts[0]);
+            if (order != expectedOrder) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort order");
+            }
+            if (order == Order.ID && parts.length == 2) {
+                return new UserCursor(order, null, Long.parseLong(parts[1]));
+            }
+            if (order == Order.CREATED_AT && parts.length == 3) {
+                return new UserCursor(order, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    public String encode() {
+        String raw = order == Order.ID
+                ? order.name() + SEPARATOR + id
+                : order.name() + SEPARATOR + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.util;
+
+/**
+ * Maps the {@code @Version} of a user to a strong entity tag and back, so clients can send
+ * the version they last saw as {@code If-Match}.
+ */
+public final class VersionTags {
+    private VersionTags() {
+    }
+
+    public static String toETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @return the version named by an {@code If-Match} header, or {@code null} when the header
+     * is absent or {@code *} (no precondition on the version)
+     */
+    public static Long fromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new IllegalArgumentException("If-Match must be a single strong entity tag");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be a single strong entity tag");
+        }
+    }
+}
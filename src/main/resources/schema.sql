@@ -0,0 +1,47 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization).
+-- Expression indexes that @Index cannot describe.
+
+-- Case-insensitive name prefix search: lower(name) LIKE 'abc%' under any collation
+CREATE INDEX IF NOT EXISTS idx_users_lower_name ON users (lower(name) text_pattern_ops);
+
+-- Users per creation day and age bucket behind GET /api/users/stats (see UserStatsRollup).
+-- Each cell is striped over a few shard rows so concurrent writers rarely share a row lock.
+CREATE TABLE IF NOT EXISTS user_stats (
+    created_on date     NOT NULL,
+    age_bucket integer  NOT NULL,
+    shard      smallint NOT NULL,
+    users      bigint   NOT NULL,
+    PRIMARY KEY (created_on, age_bucket, shard)
+);
+
+-- Outcome of each signup drained from the write-behind log (see UserIngestor), by the
+-- tracking id returned with 202 Accepted. Also makes replaying a drained batch a no-op.
+CREATE TABLE IF NOT EXISTS user_ingest (
+    tracking_id  uuid         PRIMARY KEY,
+    status       varchar(20)  NOT NULL,
+    user_id      bigint,
+    email        varchar(255) NOT NULL,
+    accepted_at  timestamp    NOT NULL,
+    processed_at timestamp    NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_user_ingest_processed_at ON user_ingest (processed_at);
+
+-- Change feed outbox (see UserChangeLog). Writers insert with seq NULL in their own
+-- transaction; the sequencer numbers committed rows afterwards, so seq order is an order
+-- in which changes became visible and a reader never skips a late-committing change.
+CREATE SEQUENCE IF NOT EXISTS user_changes_seq;
+CREATE TABLE IF NOT EXISTS user_changes (
+    id         bigserial   PRIMARY KEY,
+    seq        bigint      UNIQUE,
+    user_id    bigint      NOT NULL,
+    operation  varchar(10) NOT NULL,
+    version    bigint,
+    changed_at timestamp   NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_user_changes_unsequenced ON user_changes (id) WHERE seq IS NULL;
+-- Highest seq removed by compaction; readers behind it must resynchronize.
+CREATE TABLE IF NOT EXISTS user_changes_compaction (
+    singleton         boolean PRIMARY KEY DEFAULT true CHECK (singleton),
+    compacted_through bigint  NOT NULL
+);
+INSERT INTO user_changes_compaction (compacted_through) VALUES (0) ON CONFLICT DO NOTHING;
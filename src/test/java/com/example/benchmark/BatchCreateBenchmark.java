@@ -0,0 +1,72 @@
+package com.example.benchmark;
+
+import com.example.dto.UserRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inserting {@code users} accounts through N single POSTs versus one POST /api/users/batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class BatchCreateBenchmark {
+    @Param({"1000"})
+    private int users;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private BenchmarkEnvironment environment;
+    private List<String> singleBodies;
+    private String batchBody;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        environment = BenchmarkEnvironment.start();
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareRequests() throws Exception {
+        environment.truncateUsers();
+        List<UserRequest> requests = new ArrayList<>(users);
+        singleBodies = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            UserRequest request = new UserRequest();
+            request.setName("Bench User " + i);
+            request.setEmail("bench" + emailSequence.incrementAndGet() + "@example.com");
+            request.setAge(20 + i % 50);
+            requests.add(request);
+            singleBodies.add(objectMapper.writeValueAsString(request));
+        }
+        batchBody = objectMapper.writeValueAsString(requests);
+    }
+
+    @Benchmark
+    public int singlePosts() throws Exception {
+        int created = 0;
+        for (String body : singleBodies) {
+            if (environment.post("/api/users", body).statusCode() == 201) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    @Benchmark
+    public String batchPost() throws Exception {
+        return environment.post("/api/users/batch", batchBody).body();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        environment.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.benchmark;
+
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed payloads for the in-process benchmarks, so every run serializes and validates
+ * the same shapes.
+ */
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    static UserRequest request(int i) {
+        UserRequest request = new UserRequest();
+        request.setName("Bench User " + i);
+        request.setEmail("bench" + i + "@example.com");
+        request.setAge(20 + i % 50);
+        return request;
+    }
+
+    static UserResponse response(long id) {
+        UserResponse response = new UserResponse();
+        response.setId(id);
+        response.setName("Bench User " + id);
+        response.setEmail("bench" + id + "@example.com");
+        response.setAge(20 + (int) (id % 50));
+        response.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusSeconds(id));
+        return response;
+    }
+
+    static List<UserResponse> responses(int count) {
+        List<UserResponse> responses = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            responses.add(response(i));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.benchmark;
+
+import com.example.UserServiceApplication;
+import com.example.reactive.ReactiveUserServiceApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots {@link UserServiceApplication} on a random port against a throwaway PostgreSQL
+ * container so benchmarks measure the real HTTP + JPA + JDBC path.
+ */
+public class BenchmarkEnvironment implements AutoCloseable {
+    private final PostgreSQLContainer<?> postgres;
+    private final ConfigurableApplicationContext context;
+    private final HttpClient httpClient;
+    private ConfigurableApplicationContext reactiveContext;
+    private String baseUrl;
+
+    private BenchmarkEnvironment(PostgreSQLContainer<?> postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+        this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    public static BenchmarkEnvironment start(String... extraArgs) {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN"));
+        args.addAll(Arrays.asList(extraArgs));
+
+        ConfigurableApplicationContext context =
+                SpringApplication.run(UserServiceApplication.class, args.toArray(new String[0]));
+        return new BenchmarkEnvironment(postgres, context);
+    }
+
+    /**
+     * Boots {@link ReactiveUserServiceApplication} against the same database (the servlet
+     * application has already created the schema) and routes {@link #get}/{@link #post} to it.
+     */
+    public void startReactive(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.r2dbc.url=r2dbc:postgresql://" + postgres.getHost() + ":"
+                        + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + postgres.getDatabaseName(),
+                "--spring.r2dbc.username=" + postgres.getUsername(),
+                "--spring.r2dbc.password=" + postgres.getPassword(),
+                "--logging.level.root=WARN"));
+        args.addAll(Arrays.asList(extraArgs));
+
+        reactiveContext = new SpringApplicationBuilder(ReactiveUserServiceApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(ReactiveUserServiceApplication.PROFILE)
+                .run(args.toArray(new String[0]));
+        baseUrl = "http://localhost:" + reactiveContext.getEnvironment().getProperty("local.server.port");
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public JdbcTemplate jdbc() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    public void truncateUsers() {
+        jdbc().execute("TRUNCATE TABLE users");
+    }
+
+    public HttpResponse<String> get(String path) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    public HttpResponse<String> post(String path, String json) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public PostgreSQLContainer<?> getPostgres() {
+        return postgres;
+    }
+
+    @Override
+    public void close() {
+        if (reactiveContext != null) {
+            reactiveContext.close();
+        }
+        context.close();
+        postgres.stop();
+    }
+}
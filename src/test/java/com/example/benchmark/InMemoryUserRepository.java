@@ -0,0 +1,183 @@
+package com.example.benchmark;
+
+import com.example.cache.EmailBloomFilter;
+import com.example.cache.UserCache;
+import com.example.changes.UserChangeFeed;
+import com.example.entity.User;
+import com.example.mapper.UserMapper;
+import com.example.repository.UserRepository;
+import com.example.service.UserService;
+import com.example.stats.UserStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed {@link UserRepository} covering the methods {@code UserService} calls, so the
+ * service benchmarks measure the service itself rather than the database. Any other
+ * repository method fails loudly.
+ */
+final class InMemoryUserRepository implements InvocationHandler {
+    private final ConcurrentSkipListMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final Map<Long, String> emailsById = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    UserRepository repository() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, this);
+    }
+
+    /**
+     * A {@link UserService} wired to this store, with the Bloom filter, stats and change
+     * feed disabled (they need a database) and the user cache as requested.
+     */
+    UserService userService(Validator validator, boolean cache) {
+        UserRepository repository = repository();
+        PlatformTransactionManager noTransactions = (PlatformTransactionManager) Proxy.newProxyInstance(
+                PlatformTransactionManager.class.getClassLoader(), new Class<?>[]{PlatformTransactionManager.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        UserService userService = new UserService(
+                repository,
+                UserMapper.INSTANCE,
+                entityManager(),
+                null,
+                validator,
+                new UserCache(cache, 100_000, Duration.ZERO, new SimpleMeterRegistry()),
+                new EmailBloomFilter(false, 100_000, 0.01, repository, noTransactions),
+                new UserStats(false, null, noTransactions, new SimpleMeterRegistry()),
+                new UserChangeFeed(false, Duration.ZERO, Duration.ZERO, 1, 1, 1, null, noTransactions,
+                        new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(userService, "batchSize", 50);
+        ReflectionTestUtils.setField(userService, "batchMaxItems", 10_000);
+        return userService;
+    }
+
+    /**
+     * Transactions are meaningless for a map; this manager just lets
+     * {@code TransactionTemplate} callers run.
+     */
+    static PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    /**
+     * The slice of {@link EntityManager} used by batch creation: {@code persist} stores into
+     * this repository and flush/clear/detach are no-ops.
+     */
+    EntityManager entityManager() {
+        return (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "persist" -> {
+                        save((User) args[0]);
+                        yield null;
+                    }
+                    case "flush", "clear", "detach" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "findById":
+                return Optional.ofNullable(users.get((Long) args[0]));
+            case "existsById":
+                return users.containsKey((Long) args[0]);
+            case "existsByEmail":
+                return idsByEmail.containsKey((String) args[0]);
+            case "findByNaturalEmail":
+                return Optional.ofNullable(idsByEmail.get((String) args[0])).map(users::get);
+            case "save":
+            case "saveAndFlush":
+                return save((User) args[0]);
+            case "deleteById":
+                users.remove((Long) args[0]);
+                String email = emailsById.remove((Long) args[0]);
+                if (email != null) {
+                    idsByEmail.remove(email);
+                }
+                return null;
+            case "findAllById":
+                List<User> found = new ArrayList<>();
+                for (Long id : (Iterable<Long>) args[0]) {
+                    User user = users.get(id);
+                    if (user != null) {
+                        found.add(user);
+                    }
+                }
+                return found;
+            case "findExistingEmails":
+                return ((Collection<String>) args[0]).stream().filter(idsByEmail::containsKey).toList();
+            case "findPageAfterId":
+                return users.tailMap((Long) args[0], false).values().stream()
+                        .limit(((Pageable) args[1]).getPageSize())
+                        .toList();
+            case "streamAllForSuggest":
+                return users.values().stream().map(user -> new Object[]{user.getId(), user.getName(), user.getEmail()});
+            case "count":
+                return (long) users.size();
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryUserRepository(" + users.size() + " users)";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    private User save(User user) {
+        if (user.getId() == null) {
+            user.setId(sequence.incrementAndGet());
+        }
+        if (user.getCreatedAt() == null) {
+            user.setCreatedAt(LocalDateTime.now());
+        }
+        users.put(user.getId(), user);
+        String previousEmail = emailsById.put(user.getId(), user.getEmail());
+        if (previousEmail != null && !previousEmail.equals(user.getEmail())) {
+            idsByEmail.remove(previousEmail);
+        }
+        idsByEmail.put(user.getEmail(), user.getId());
+        return user;
+    }
+}
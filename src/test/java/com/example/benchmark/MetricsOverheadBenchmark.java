@@ -0,0 +1,91 @@
+package com.example.benchmark;
+
+import com.example.dto.UserResponse;
+import com.example.metrics.ServiceMetricsAspect;
+import com.example.service.UserService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of {@link ServiceMetricsAspect} on the cheapest service calls (cached reads on the
+ * in-memory stub), where any overhead is most visible. Both variants go through an AOP
+ * proxy, as {@code UserService} always does in the application because of
+ * {@code @Transactional}; the registry is Prometheus with the same histogram settings as
+ * application.properties. Run with several threads (-t 8) to see contention, if any.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetricsOverheadBenchmark {
+    private static final int SEEDED_USERS = 10_000;
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    private final AtomicInteger emailSequence = new AtomicInteger(SEEDED_USERS);
+    private ValidatorFactory validatorFactory;
+    private UserService userService;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        UserService target = new InMemoryUserRepository().userService(validatorFactory.getValidator(), true);
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        if (metrics) {
+            PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            registry.config().meterFilter(new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .minimumExpectedValue((double) Duration.ofNanos(100_000).toNanos())
+                            .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                            .build()
+                            .merge(config);
+                }
+            });
+            proxyFactory.addAspect(new ServiceMetricsAspect(registry));
+        }
+        userService = proxyFactory.getProxy();
+
+        ids = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            ids.add(userService.createUser(BenchmarkData.request(i)).getId());
+        }
+    }
+
+    @Benchmark
+    public UserResponse getUserById() {
+        return userService.getUserById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public UserResponse createUser() {
+        return userService.createUser(BenchmarkData.request(emailSequence.incrementAndGet()));
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        validatorFactory.close();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.benchmark;
+
+import com.example.dto.UserRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Resolving a page's worth of user ids with sequential GET /api/users/{id} calls versus
+ * a single POST /api/users/lookup. The user cache is disabled so both sides hit the
+ * database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class MultiGetBenchmark {
+    private static final int SEEDED_USERS = 10_000;
+
+    @Param({"10", "50", "200"})
+    private int idsPerPage;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BenchmarkEnvironment environment;
+    private List<Long> seededIds;
+    private List<Long> pageIds;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        environment = BenchmarkEnvironment.start("--app.cache.users.enabled=false");
+
+        List<UserRequest> requests = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            UserRequest request = new UserRequest();
+            request.setName("Bench User " + i);
+            request.setEmail("multiget" + i + "@example.com");
+            request.setAge(20 + i % 50);
+            requests.add(request);
+        }
+        environment.post("/api/users/batch", objectMapper.writeValueAsString(requests));
+        seededIds = environment.jdbc().queryForList("SELECT id FROM users", Long.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void pickIds() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        pageIds = random.ints(idsPerPage, 0, seededIds.size())
+                .mapToObj(seededIds::get)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int sequentialGets() throws Exception {
+        int found = 0;
+        for (Long id : pageIds) {
+            if (environment.get("/api/users/" + id).statusCode() == 200) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public String lookup() throws Exception {
+        return environment.post("/api/users/lookup", objectMapper.writeValueAsString(Map.of("ids", pageIds))).body();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        environment.close();
+    }
+}
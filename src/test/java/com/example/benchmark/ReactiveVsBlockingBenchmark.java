@@ -0,0 +1,107 @@
+package com.example.benchmark;
+
+import com.example.dto.UserRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Side-by-side fan-out test of the servlet stack (Tomcat + JDBC) and the reactive stack
+ * (Netty + R2DBC) on the same database. Each invocation opens {@code clients} concurrent
+ * connections that each fetch one user and then read a page line by line, so the server
+ * holds many slow, mostly idle requests at once. Reported time is for the whole wave;
+ * requests that fail or time out are counted in {@code failures} instead of aborting the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ReactiveVsBlockingBenchmark {
+    private static final int SEEDED_USERS = 10_000;
+
+    @Param({"blocking", "reactive"})
+    private String stack;
+
+    @Param({"1000", "10000"})
+    private int clients;
+
+    private BenchmarkEnvironment environment;
+    private List<Long> ids;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long failures;
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        environment = BenchmarkEnvironment.start();
+
+        List<UserRequest> requests = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            UserRequest request = new UserRequest();
+            request.setName("Bench User " + i);
+            request.setEmail("rx" + i + "@example.com");
+            request.setAge(20 + i % 50);
+            requests.add(request);
+        }
+        environment.post("/api/users/batch", new ObjectMapper().writeValueAsString(requests));
+        ids = environment.jdbc().queryForList("SELECT id FROM users", Long.class);
+
+        if ("reactive".equals(stack)) {
+            environment.startReactive();
+        }
+    }
+
+    @Benchmark
+    public int fanOut(Outcome outcome) {
+        List<CompletableFuture<Boolean>> inFlight = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+            inFlight.add(send("/api/users/" + id)
+                    .thenCompose(ok -> send("/api/users?limit=100")
+                            .thenApply(streamed -> ok && streamed)));
+        }
+
+        int succeeded = 0;
+        for (CompletableFuture<Boolean> request : inFlight) {
+            if (request.join()) {
+                succeeded++;
+            } else {
+                outcome.failures++;
+            }
+        }
+        return succeeded;
+    }
+
+    private CompletableFuture<Boolean> send(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(environment.getBaseUrl() + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        return environment.getHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenApply(response -> {
+                    response.body().forEach(line -> { });
+                    return response.statusCode() == 200;
+                })
+                .exceptionally(e -> false);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        environment.close();
+    }
+}
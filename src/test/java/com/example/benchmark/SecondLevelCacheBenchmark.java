@@ -0,0 +1,71 @@
+package com.example.benchmark;
+
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import com.example.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeated {@code findById} over a hot set of users through both persistence paths
+ * (Spring Data repository and native {@link UserDaoImpl}), with the Hibernate
+ * second-level cache on and off. Each call uses a fresh session, as requests do, so
+ * without L2 every lookup is a SQL round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class SecondLevelCacheBenchmark {
+    private static final int SEEDED_USERS = 50_000;
+    private static final int HOT_USERS = 1_000;
+
+    @Param({"true", "false"})
+    public boolean secondLevelCache;
+
+    private BenchmarkEnvironment environment;
+    private UserRepository userRepository;
+    private UserDao userDao;
+    private List<Long> hotIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // The native SessionFactory reads this; the Spring one reads app.l2-cache.enabled.
+        System.setProperty("hibernate.cache.use_second_level_cache", String.valueOf(secondLevelCache));
+        environment = BenchmarkEnvironment.start("--app.l2-cache.enabled=" + secondLevelCache);
+        environment.jdbc().update("""
+                INSERT INTO users (id, name, email, age, created_at, version)
+                SELECT nextval('users_seq'), 'L2 User ' || g, 'l2-' || g || '@example.com', g % 90, LOCALTIMESTAMP, 0
+                FROM generate_series(1, ?) g
+                """, SEEDED_USERS);
+        hotIds = environment.jdbc().queryForList("SELECT id FROM users ORDER BY random() LIMIT ?", Long.class, HOT_USERS);
+        userRepository = environment.getBean(UserRepository.class);
+        userDao = new UserDaoImpl();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        environment.close();
+        System.clearProperty("hibernate.cache.use_second_level_cache");
+    }
+
+    @Benchmark
+    public User repositoryFindById() {
+        return userRepository.findById(randomHotId()).orElseThrow();
+    }
+
+    @Benchmark
+    public User daoFindById() {
+        return userDao.findById(randomHotId()).orElseThrow();
+    }
+
+    private Long randomHotId() {
+        return hotIds.get(ThreadLocalRandom.current().nextInt(hotIds.size()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Large GET /api/users pages with the full representation versus {@code fields=id,email}.
+ * Throughput is reported per page; the {@code rows} and {@code bytes} counters turn that
+ * into rows/s and response bytes/s, and setup prints the size of one page of each kind.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class SparseFieldsBenchmark {
+    private static final int SEEDED_USERS = 100_000;
+    private static final int PAGE_SIZE = 500;
+
+    @Param({"", "id,email"})
+    public String fields;
+
+    private BenchmarkEnvironment environment;
+    private String path;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Transfer {
+        public long rows;
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        environment = BenchmarkEnvironment.start();
+        environment.jdbc().update("""
+                INSERT INTO users (id, name, email, age, created_at, updated_at, version)
+                SELECT nextval('users_seq'), 'Sparse Bench User ' || g, 'sparse' || g || '@example.com',
+                       g % 90, LOCALTIMESTAMP, LOCALTIMESTAMP, 0
+                FROM generate_series(1, ?) g
+                """, SEEDED_USERS);
+        path = "/api/users?limit=" + PAGE_SIZE + (fields.isEmpty() ? "" : "&fields=" + fields);
+
+        String body = environment.get(path).body();
+        System.out.printf("%nfields=%s: %d bytes per %d-row page (%.1f bytes/row)%n",
+                fields.isEmpty() ? "<all>" : fields, body.length(), PAGE_SIZE, (double) body.length() / PAGE_SIZE);
+    }
+
+    @Benchmark
+    public int page(Transfer transfer) throws Exception {
+        HttpResponse<String> response = environment.get(path);
+        transfer.rows += PAGE_SIZE;
+        transfer.bytes += response.body().length();
+        return response.statusCode();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        environment.close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.benchmark;
+
+import com.example.dto.UserSuggestion;
+import com.example.entity.User;
+import com.example.repository.UserRepository;
+import com.example.search.UserSuggestIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead latency of {@link UserSuggestIndex} over a million synthetic users, for a
+ * short prefix, a full word and a misspelt two-word query. Setup prints the index's own
+ * size estimate and the measured heap growth, both scaled to one million users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SuggestBenchmark {
+    private static final String[] FIRST = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+            "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen", "Olga", "Dmitry", "Anna", "Sergey", "Yuki", "Hiroshi", "Ahmed", "Fatima"};
+    private static final String[] LAST = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson", "Taylor", "Moore",
+            "Ivanov", "Petrova", "Kuznetsov", "Tanaka", "Suzuki", "Nakamura", "Haddad", "Khalil", "Novak"};
+    private static final String[] DOMAINS = {"example.com", "mail.example.org", "corp.example.net"};
+
+    @Param("1000000")
+    public int users;
+
+    private UserSuggestIndex index;
+
+    @Setup
+    public void prepare() {
+        InMemoryUserRepository store = new InMemoryUserRepository();
+        UserRepository repository = store.repository();
+        Random random = new Random(42);
+        for (int i = 0; i < users; i++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            String last = LAST[random.nextInt(LAST.length)];
+            repository.save(new User(first + " " + last,
+                    (first + "." + last + i + "@" + DOMAINS[i % DOMAINS.length]).toLowerCase(), 20 + i % 50));
+        }
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        long heapBefore = usedHeap();
+        index = new UserSuggestIndex(true, repository, InMemoryUserRepository.transactionManager(), registry);
+        index.rebuild();
+        long heapAfter = usedHeap();
+
+        double estimate = registry.get("users.suggest.index.bytes").gauge().value();
+        System.out.printf("%nSuggest index for %d users: estimate %.1f MiB, heap delta %.1f MiB per million users%n",
+                users, estimate * 1_000_000 / users / (1 << 20),
+                (double) (heapAfter - heapBefore) * 1_000_000 / users / (1 << 20));
+    }
+
+    @Benchmark
+    public List<UserSuggestion> shortPrefix() {
+        return index.suggest("jo", 10);
+    }
+
+    @Benchmark
+    public List<UserSuggestion> word() {
+        return index.suggest("nakamura", 10);
+    }
+
+    @Benchmark
+    public List<UserSuggestion> misspelt() {
+        return index.suggest("jenifer rodrigez", 10);
+    }
+
+    @Benchmark
+    public List<UserSuggestion> emailFragment() {
+        return index.suggest("petrova12", 10);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.benchmark;
+
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import com.example.util.HibernateUtil;
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-call {@link UserDao} methods (one session and transaction each) against the
+ * collection variants (one session, JDBC batches) for the same number of users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class UserDaoBatchBenchmark {
+    @Param({"1000"})
+    private int users;
+
+    private final AtomicLong emailSequence = new AtomicLong();
+    private PostgreSQLContainer<?> postgres;
+    private UserDao userDao;
+    private List<User> batch;
+    private List<Long> savedIds;
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+        System.setProperty("test.mode", "true");
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+        userDao = new UserDaoImpl();
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareUsers() {
+        batch = newUsers();
+        // Rows for the find benchmarks are inserted here, outside the measured region.
+        List<User> saved = newUsers();
+        userDao.saveAll(saved);
+        savedIds = saved.stream().map(User::getId).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void savePerCall() {
+        batch.forEach(userDao::save);
+    }
+
+    @Benchmark
+    public void saveAll() {
+        userDao.saveAll(batch);
+    }
+
+    @Benchmark
+    public int findByIdPerCall() {
+        int found = 0;
+        for (Long id : savedIds) {
+            if (userDao.findById(id).isPresent()) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int findAllById() {
+        return userDao.findAllById(savedIds).size();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        HibernateUtil.shutdown();
+        postgres.stop();
+    }
+
+    private List<User> newUsers() {
+        List<User> result = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            result.add(new User("Bench User " + i, "bench" + emailSequence.incrementAndGet() + "@example.com", 20 + i % 50));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.benchmark;
+
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.entity.User;
+import com.example.util.HibernateUtil;
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end {@link UserDaoImpl} calls (session, transaction, SQL) against a throwaway
+ * PostgreSQL container, one row per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class UserDaoBenchmark {
+    private static final int SEEDED_USERS = 10_000;
+
+    private final AtomicLong emailSequence = new AtomicLong();
+    private PostgreSQLContainer<?> postgres;
+    private UserDao userDao;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+        System.setProperty("test.mode", "true");
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+        userDao = new UserDaoImpl();
+
+        List<User> seed = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            seed.add(newUser());
+        }
+        userDao.saveAll(seed);
+        ids = seed.stream().map(User::getId).toList();
+    }
+
+    @Benchmark
+    public Long save() {
+        User user = newUser();
+        userDao.save(user);
+        return user.getId();
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userDao.findById(randomId());
+    }
+
+    @Benchmark
+    public User update() {
+        User user = userDao.findById(randomId()).orElseThrow();
+        user.setAge(user.getAge() + 1);
+        userDao.update(user);
+        return user;
+    }
+
+    /**
+     * Insert-then-delete, so the seeded rows stay in place; subtract {@link #save()} for
+     * the delete alone.
+     */
+    @Benchmark
+    public Long saveAndDelete() {
+        User user = newUser();
+        userDao.save(user);
+        userDao.delete(user.getId());
+        return user.getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        HibernateUtil.shutdown();
+        postgres.stop();
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private User newUser() {
+        long n = emailSequence.incrementAndGet();
+        return new User("Bench User " + n, "dao" + n + "@example.com", 20 + (int) (n % 50));
+    }
+}
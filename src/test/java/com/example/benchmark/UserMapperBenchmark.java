@@ -0,0 +1,49 @@
+package com.example.benchmark;
+
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import com.example.entity.User;
+import com.example.mapper.UserMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the generated MapStruct mappings used on every request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserMapperBenchmark {
+    private final UserMapper mapper = UserMapper.INSTANCE;
+    private UserRequest request;
+    private User user;
+
+    @Setup
+    public void prepare() {
+        request = BenchmarkData.request(1);
+        user = new User("Bench User", "bench@example.com", 30);
+        user.setId(1L);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    @Benchmark
+    public UserResponse toResponse() {
+        return mapper.toResponse(user);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public User updateEntity() {
+        mapper.updateEntity(request, user);
+        return user;
+    }
+}
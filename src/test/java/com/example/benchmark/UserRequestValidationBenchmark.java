@@ -0,0 +1,54 @@
+package com.example.benchmark;
+
+import com.example.dto.UserRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean validation of {@link UserRequest}, for a valid request and for one that violates
+ * every constraint (violation messages are interpolated only on the failing path).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserRequestValidationBenchmark {
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private UserRequest valid;
+    private UserRequest invalid;
+
+    @Setup
+    public void prepare() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = BenchmarkData.request(1);
+        invalid = new UserRequest();
+        invalid.setName(" ");
+        invalid.setEmail("not-an-email");
+        invalid.setAge(-1);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRequest>> validRequest() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRequest>> invalidRequest() {
+        return validator.validate(invalid);
+    }
+
+    @TearDown
+    public void close() {
+        validatorFactory.close();
+    }
+}
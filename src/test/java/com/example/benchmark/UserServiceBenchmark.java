@@ -0,0 +1,106 @@
+package com.example.benchmark;
+
+import com.example.dto.BatchCreateResponse;
+import com.example.dto.CursorPage;
+import com.example.dto.UserLookupResponse;
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import com.example.service.UserService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link UserService} in isolation: the repository and entity manager are in-memory stubs
+ * ({@link InMemoryUserRepository}), so the numbers cover mapping, validation, cache and
+ * service logic without any database round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserServiceBenchmark {
+    private static final int SEEDED_USERS = 10_000;
+    private static final int LOOKUP_SIZE = 50;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    private final AtomicInteger emailSequence = new AtomicInteger(SEEDED_USERS);
+    private ValidatorFactory validatorFactory;
+    private UserService userService;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        userService = new InMemoryUserRepository().userService(validatorFactory.getValidator(), cache);
+
+        ids = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            ids.add(userService.createUser(BenchmarkData.request(i)).getId());
+        }
+    }
+
+    @Benchmark
+    public UserResponse getUserById() {
+        return userService.getUserById(randomId());
+    }
+
+    @Benchmark
+    public UserLookupResponse<UserResponse> getUsersByIds() {
+        List<Long> lookup = new ArrayList<>(LOOKUP_SIZE);
+        for (int i = 0; i < LOOKUP_SIZE; i++) {
+            lookup.add(randomId());
+        }
+        return userService.getUsersByIds(lookup);
+    }
+
+    @Benchmark
+    public CursorPage<UserResponse> getUsersPage() {
+        return userService.getUsers(50, null, "id");
+    }
+
+    @Benchmark
+    public UserResponse createUser() {
+        return userService.createUser(BenchmarkData.request(emailSequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public BatchCreateResponse createUsers() {
+        List<UserRequest> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(BenchmarkData.request(emailSequence.incrementAndGet()));
+        }
+        return userService.createUsers(batch);
+    }
+
+    @Benchmark
+    public UserResponse updateUser() {
+        Long id = randomId();
+        UserResponse current = userService.getUserById(id);
+        UserRequest request = new UserRequest();
+        request.setName(current.getName());
+        request.setEmail(current.getEmail());
+        request.setAge(current.getAge() + 1);
+        return userService.updateUser(id, request);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        validatorFactory.close();
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.benchmark;
+
+import com.example.dto.UserRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * High-concurrency load against GET /api/users/{id} with Tomcat on platform threads
+ * versus virtual threads. SampleTime mode reports throughput together with the latency
+ * distribution (p50/p99/p99.9). Run with {@code -Djdk.tracePinnedThreads=short} in the
+ * JVM args to surface any remaining pinning.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(1000)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 20)
+public class VirtualThreadsBenchmark {
+    private static final int SEEDED_USERS = 10_000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    private BenchmarkEnvironment environment;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        environment = BenchmarkEnvironment.start(
+                "--app.virtual-threads.enabled=" + "virtual".equals(threads),
+                "--app.cache.users.enabled=" + cache);
+
+        List<UserRequest> requests = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            UserRequest request = new UserRequest();
+            request.setName("Bench User " + i);
+            request.setEmail("vt" + i + "@example.com");
+            request.setAge(20 + i % 50);
+            requests.add(request);
+        }
+        environment.post("/api/users/batch", new ObjectMapper().writeValueAsString(requests));
+        ids = environment.jdbc().queryForList("SELECT id FROM users", Long.class);
+    }
+
+    @Benchmark
+    public int getUser() throws Exception {
+        Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return environment.get("/api/users/" + id).statusCode();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        environment.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.cache;
+
+import com.example.dto.UserResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, UserResponse> loader = id -> {
+        loads.incrementAndGet();
+        UserResponse response = new UserResponse();
+        response.setId(id);
+        return response;
+    };
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldLoadOnceAndServeHitsFromMemory() {
+        UserCache cache = new UserCache(true, 100, null, registry);
+
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void shouldNotCacheMissingUsers() {
+        UserCache cache = new UserCache(true, 100, null, registry);
+
+        assertNull(cache.get(1L, id -> null));
+        assertNotNull(cache.get(1L, loader));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldPeekWithoutLoading() {
+        UserCache cache = new UserCache(true, 100, null, registry);
+
+        assertNull(cache.getIfPresent(1L));
+        cache.get(1L, loader);
+
+        assertEquals(1L, cache.getIfPresent(1L).getId());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldEvictAgainWhenTransactionCompletes() {
+        UserCache cache = new UserCache(true, 100, null, registry);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(1L);
+        // A concurrent reader repopulates the entry before the writer commits.
+        cache.get(1L, loader);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        cache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldBypassWhenDisabled() {
+        UserCache cache = new UserCache(false, 100, null, registry);
+
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.changes;
+
+import com.example.dto.UserChange;
+import com.example.dto.UserChange.Operation;
+import com.example.dto.UserChangePage;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRequest;
+import com.example.exception.GoneException;
+import com.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "app.changes.retention=PT0S",
+        "app.changes.compaction-cron=-"})
+class UserChangeFeedIntegrationTest {
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserChangeFeed changeFeed;
+
+    @Autowired
+    private UserChangeLog changeLog;
+
+    @Test
+    void serviceWritesAppearInCommitOrder() throws InterruptedException {
+        long since = changeLog.latestSeq();
+        Long id = userService.createUser(request("feed@example.com", 30)).getId();
+        userService.updateUser(id, request("feed@example.com", 31));
+        userService.updateUser(id, request("feed@example.com", 31));
+        UserPatchRequest patch = new UserPatchRequest();
+        patch.setName("Renamed");
+        userService.patchUser(id, patch, null);
+        userService.deleteUser(id);
+
+        List<UserChange> changes = awaitChanges(since, 4);
+
+        assertEquals(List.of(Operation.CREATED, Operation.UPDATED, Operation.UPDATED, Operation.DELETED),
+                changes.stream().map(UserChange::getOperation).toList());
+        assertTrue(changes.stream().allMatch(change -> change.getUserId() == id));
+        assertEquals(List.of(0L, 1L, 2L), changes.subList(0, 3).stream().map(UserChange::getVersion).toList());
+        assertNull(changes.get(0).getUser(), "deleted since, so no current state");
+        for (int i = 1; i < changes.size(); i++) {
+            assertTrue(changes.get(i).getSeq() > changes.get(i - 1).getSeq());
+        }
+    }
+
+    @Test
+    void longPollCompletesOnTheNextChange() throws InterruptedException {
+        long since = changeLog.latestSeq();
+        DeferredResult<UserChangePage> poll = changeFeed.poll(since, 10, 30);
+        assertFalse(poll.hasResult());
+
+        Long id = userService.createUser(request("waiting@example.com", 40)).getId();
+
+        UserChangePage page = awaitResult(poll);
+        assertEquals(1, page.getChanges().size());
+        assertEquals(id, page.getChanges().get(0).getUserId());
+        assertEquals("waiting@example.com", page.getChanges().get(0).getUser().getEmail());
+        assertEquals(page.getChanges().get(0).getSeq(), page.getLastSeq());
+    }
+
+    @Test
+    void compactedPositionsAreGone() throws InterruptedException {
+        long since = changeLog.latestSeq();
+        userService.createUser(request("compacted@example.com", 50));
+        awaitChanges(since, 1);
+
+        changeFeed.compact();
+
+        long latest = changeLog.latestSeq();
+        assertEquals(latest, changeLog.compactedThrough());
+        assertThrows(GoneException.class, () -> changeFeed.page(since, 10));
+        assertTrue(changeFeed.page(latest, 10).getChanges().isEmpty());
+    }
+
+    private List<UserChange> awaitChanges(long since, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<UserChange> changes = new ArrayList<>(changeFeed.page(since, 100).getChanges());
+        while (changes.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            changes = new ArrayList<>(changeFeed.page(since, 100).getChanges());
+        }
+        return changes;
+    }
+
+    private static UserChangePage awaitResult(DeferredResult<UserChangePage> result) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!result.hasResult() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(result.hasResult(), "long poll was not completed");
+        return (UserChangePage) result.getResult();
+    }
+
+    private static UserRequest request(String email, int age) {
+        UserRequest request = new UserRequest();
+        request.setName("Change Feed");
+        request.setEmail(email);
+        request.setAge(age);
+        return request;
+    }
+}
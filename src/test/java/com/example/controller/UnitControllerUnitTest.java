@@ -1,9 +1,30 @@
 package com.example.controller;
 
+import com.example.changes.UserChangeFeed;
+import com.example.dto.BatchCreateResponse;
+import com.example.dto.BatchItemResult;
+import com.example.dto.BulkOperationResult;
+import com.example.dto.UserChange;
+import com.example.dto.UserChangePage;
+import com.example.dto.CursorPage;
+import com.example.dto.UserLookupResponse;
+import com.example.dto.UserPatchRequest;
 import com.example.dto.UserRequest;
 import com.example.dto.UserResponse;
+import com.example.dto.UserStatsResponse;
+import com.example.dto.UserField;
+import com.example.dto.UserIngestStatus;
+import com.example.dto.UserSuggestion;
+import com.example.dto.UserVersion;
+import com.example.exception.GoneException;
+import com.example.exception.OverloadedException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.ingest.UserIngestor;
+import com.example.search.UserSuggestIndex;
+import com.example.service.UserBulkService;
+import com.example.service.UserImportService;
 import com.example.service.UserService;
+import com.example.stats.UserStats;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,12 +32,30 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +68,24 @@ class UserControllerUnitTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserBulkService userBulkService;
+
+    @MockBean
+    private UserSuggestIndex userSuggestIndex;
+
+    @MockBean
+    private UserStats userStats;
+
+    @MockBean
+    private UserIngestor userIngestor;
+
+    @MockBean
+    private UserChangeFeed userChangeFeed;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
@@ -72,6 +129,28 @@ class UserControllerUnitTest {
                 .andExpect(jsonPath("$.age").exists());
     }
 
+    @Test
+    void shouldCreateUsersInBatch() throws Exception {
+        UserRequest request = new UserRequest();
+        request.setName("John Doe");
+        request.setEmail("john@example.com");
+        request.setAge(30);
+
+        when(userService.createUsers(anyList())).thenReturn(new BatchCreateResponse(List.of(
+                BatchItemResult.created(0, 1L),
+                BatchItemResult.duplicateEmail(1, "john@example.com"))));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(request, request))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].id").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("DUPLICATE_EMAIL"));
+    }
+
     @Test
     void shouldGetUserById() throws Exception {
         UserResponse response = new UserResponse();
@@ -90,6 +169,37 @@ class UserControllerUnitTest {
                 .andExpect(jsonPath("$.age").value(30));
     }
 
+    @Test
+    void shouldAnswerNotModifiedFromVersionAlone() throws Exception {
+        LocalDateTime modified = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(userService.getUserVersion(1L)).thenReturn(new UserVersion(3L, modified, modified));
+
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""));
+
+        Mockito.verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    void shouldReturnBodyWithValidatorsWhenVersionChanged() throws Exception {
+        LocalDateTime modified = LocalDateTime.of(2024, 1, 1, 12, 0);
+        UserResponse response = new UserResponse();
+        response.setId(1L);
+        response.setName("John Doe");
+        response.setVersion(4L);
+        response.setCreatedAt(modified);
+        response.setUpdatedAt(modified);
+        when(userService.getUserVersion(1L)).thenReturn(new UserVersion(4L, modified, modified));
+        when(userService.getUserById(1L)).thenReturn(response);
+
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
     @Test
     void shouldReturnNotFoundForInvalidId() throws Exception {
         when(userService.getUserById(anyLong())).thenThrow(new ResourceNotFoundException("User not found"));
@@ -106,14 +216,119 @@ class UserControllerUnitTest {
         user.setEmail("john@example.com");
         user.setAge(30);
 
-        when(userService.getAllUsers()).thenReturn(Collections.singletonList(user));
+        when(userService.getUsers(50, null, "id"))
+                .thenReturn(new CursorPage<>(Collections.singletonList(user), "next"));
 
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].name").value("John Doe"))
-                .andExpect(jsonPath("$[0].email").value("john@example.com"))
-                .andExpect(jsonPath("$[0].age").value(30));
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("John Doe"))
+                .andExpect(jsonPath("$.items[0].email").value("john@example.com"))
+                .andExpect(jsonPath("$.items[0].age").value(30))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void shouldPassPagingParametersThrough() throws Exception {
+        when(userService.getUsers(10, "abc", "createdAt"))
+                .thenReturn(new CursorPage<>(Collections.emptyList(), null));
+
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "10")
+                        .param("after", "abc")
+                        .param("sort", "createdAt"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void shouldPassSparseFieldsetThrough() throws Exception {
+        when(userService.getUsers(50, null, "id", EnumSet.of(UserField.ID, UserField.EMAIL)))
+                .thenReturn(new CursorPage<>(List.of(Map.of("id", 1, "email", "john@example.com")), null));
+
+        mockMvc.perform(get("/api/users").param("fields", "email,id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].email").value("john@example.com"))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist());
+    }
+
+    @Test
+    void shouldRejectUnknownField() throws Exception {
+        mockMvc.perform(get("/api/users/1").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnBadRequestForInvalidCursor() throws Exception {
+        when(userService.getUsers(anyInt(), anyString(), anyString()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/users").param("after", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldLookUpUsersByIdsKeepingMissingSeparate() throws Exception {
+        UserResponse user = new UserResponse();
+        user.setId(2L);
+        user.setName("John Doe");
+
+        when(userService.getUsersByIds(List.of(2L, 7L)))
+                .thenReturn(new UserLookupResponse<>(List.of(user), List.of(7L)));
+
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[2,7]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value(2))
+                .andExpect(jsonPath("$.missing[0]").value(7));
+
+        mockMvc.perform(get("/api/users").param("ids", "2,7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value(2))
+                .andExpect(jsonPath("$.missing[0]").value(7));
+    }
+
+    @Test
+    void shouldRejectEmptyLookup() throws Exception {
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldExportUsersAsNdjson() throws Exception {
+        UserResponse first = new UserResponse();
+        first.setId(1L);
+        first.setEmail("a@example.com");
+        UserResponse second = new UserResponse();
+        second.setId(2L);
+        second.setEmail("b@example.com");
+
+        doAnswer(invocation -> {
+            Consumer<UserResponse> sink = invocation.getArgument(0);
+            sink.accept(first);
+            sink.accept(second);
+            return null;
+        }).when(userService).exportUsers(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"email\":\"a@example.com\""));
+        assertTrue(lines[1].contains("\"email\":\"b@example.com\""));
     }
 
     @Test
@@ -141,6 +356,181 @@ class UserControllerUnitTest {
                 .andExpect(jsonPath("$.age").value(35));
     }
 
+    @Test
+    void shouldPatchUserWithIfMatchVersion() throws Exception {
+        UserResponse response = new UserResponse();
+        response.setId(1L);
+        response.setAge(36);
+        response.setVersion(4L);
+
+        when(userService.patchUser(eq(1L), any(UserPatchRequest.class), eq(3L))).thenReturn(response);
+
+        mockMvc.perform(patch("/api/users/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":36}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.age").value(36))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void shouldRejectBlankNameInPatch() throws Exception {
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"  \"}"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    void shouldBindSearchCriteria() throws Exception {
+        when(userService.searchUsers(any(), anyInt(), any()))
+                .thenReturn(new CursorPage<>(Collections.emptyList(), null));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("namePrefix", "jo")
+                        .param("minAge", "18")
+                        .param("createdFrom", "2024-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        Mockito.verify(userService).searchUsers(Mockito.argThat(criteria ->
+                "jo".equals(criteria.getNamePrefix())
+                        && criteria.getMinAge() == 18
+                        && criteria.getMaxAge() == null
+                        && criteria.getCreatedFrom() != null), eq(50), Mockito.isNull());
+    }
+
+    @Test
+    void shouldBulkDeleteByFilter() throws Exception {
+        when(userBulkService.deleteUsers(any())).thenReturn(new BulkOperationResult(12, 3, 5));
+
+        mockMvc.perform(delete("/api/users")
+                        .param("emailDomain", "test.example.com")
+                        .param("createdBefore", "2024-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(12))
+                .andExpect(jsonPath("$.chunks").value(3));
+
+        Mockito.verify(userBulkService).deleteUsers(Mockito.argThat(filter ->
+                "test.example.com".equals(filter.getEmailDomain())
+                        && filter.getCreatedBefore() != null
+                        && filter.getCreatedAfter() == null));
+    }
+
+    @Test
+    void shouldReturnRankedSuggestions() throws Exception {
+        when(userSuggestIndex.suggest("jon", 10)).thenReturn(List.of(
+                new UserSuggestion(7L, "Jon Snow", "jon@example.com", 1.0),
+                new UserSuggestion(3L, "Jonas", "jonas@example.com", 1.0)));
+
+        mockMvc.perform(get("/api/users/suggest").param("q", "jon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[1].name").value("Jonas"));
+    }
+
+    @Test
+    void shouldAcceptSignupInWriteBehindMode() throws Exception {
+        UUID trackingId = UUID.randomUUID();
+        when(userIngestor.isEnabled()).thenReturn(true);
+        when(userIngestor.accept(any(UserRequest.class))).thenReturn(
+                new UserIngestStatus(trackingId, UserIngestStatus.State.PENDING, null, "late@example.com"));
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Late\",\"email\":\"late@example.com\",\"age\":30}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/users/ingest/" + trackingId))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        Mockito.verify(userService, never()).createUser(any());
+    }
+
+    @Test
+    void shouldShedSignupsWhenBacklogIsFull() throws Exception {
+        when(userIngestor.isEnabled()).thenReturn(true);
+        when(userIngestor.accept(any(UserRequest.class)))
+                .thenThrow(new OverloadedException("Signup backlog is full, retry later", Duration.ofSeconds(1)));
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Late\",\"email\":\"late@example.com\",\"age\":30}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void shouldReportIngestStatus() throws Exception {
+        UUID trackingId = UUID.randomUUID();
+        when(userIngestor.status(trackingId)).thenReturn(
+                new UserIngestStatus(trackingId, UserIngestStatus.State.DUPLICATE_EMAIL, null, "taken@example.com"));
+
+        mockMvc.perform(get("/api/users/ingest/" + trackingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DUPLICATE_EMAIL"));
+    }
+
+    @Test
+    void shouldServeStatsFromCounters() throws Exception {
+        LocalDate today = LocalDate.now();
+        when(userStats.snapshot(7, false)).thenReturn(new UserStatsResponse(42, false,
+                Map.of("30-39", 40L, "unknown", 2L), Map.of(today, 5L), LocalDateTime.now()));
+
+        mockMvc.perform(get("/api/users/stats").param("days", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(42))
+                .andExpect(jsonPath("$.approximate").value(false))
+                .andExpect(jsonPath("$.ageHistogram['30-39']").value(40))
+                .andExpect(jsonPath("$.signupsPerDay['" + today + "']").value(5));
+    }
+
+    @Test
+    void shouldRejectStatsWindowOutOfRange() throws Exception {
+        when(userStats.snapshot(0, false)).thenThrow(new IllegalArgumentException("days must be between 1 and 366"));
+
+        mockMvc.perform(get("/api/users/stats").param("days", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldServeChangesAfterSince() throws Exception {
+        UserResponse user = new UserResponse();
+        user.setId(7L);
+        user.setEmail("changed@example.com");
+        DeferredResult<UserChangePage> page = new DeferredResult<>();
+        page.setResult(new UserChangePage(List.of(
+                new UserChange(12, 7, UserChange.Operation.UPDATED, 3L, LocalDateTime.now(), user),
+                new UserChange(13, 8, UserChange.Operation.DELETED, null, LocalDateTime.now(), null)), 13, true));
+        when(userChangeFeed.poll(11, 2, 30)).thenReturn(page);
+
+        MvcResult result = mockMvc.perform(get("/api/users/changes")
+                        .param("since", "11")
+                        .param("limit", "2")
+                        .param("wait", "30"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].seq").value(12))
+                .andExpect(jsonPath("$.changes[0].user.email").value("changed@example.com"))
+                .andExpect(jsonPath("$.changes[1].operation").value("DELETED"))
+                .andExpect(jsonPath("$.lastSeq").value(13))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void shouldAnswerGoneForCompactedChanges() throws Exception {
+        when(userChangeFeed.poll(5, 100, 0)).thenThrow(new GoneException("Changes through 40 have been compacted"));
+
+        mockMvc.perform(get("/api/users/changes").param("since", "5"))
+                .andExpect(status().isGone());
+    }
+
     @Test
     void shouldDeleteUser() throws Exception {
         mockMvc.perform(delete("/api/users/1"))
@@ -2,6 +2,7 @@ package com.example.controller;
 
 import com.example.dto.UserRequest;
 import com.example.dto.UserResponse;
+import com.example.entity.User;
 import com.example.repository.UserRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -92,6 +93,29 @@ class UserControllerIntegrationTest {
                 .andExpect(jsonPath("$.age").value(request.getAge()));
     }
 
+    @Test
+    void shouldReturnOnlyRequestedFields() throws Exception {
+        User user = userRepository.save(new User("Sparse Doe", "sparse@example.com", 41));
+
+        mockMvc.perform(get("/api/users").param("fields", "id,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(user.getId()))
+                .andExpect(jsonPath("$.items[0].email").value("sparse@example.com"))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist())
+                .andExpect(jsonPath("$.items[0].createdAt").doesNotExist());
+
+        mockMvc.perform(get("/api/users/" + user.getId()).param("fields", "age"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.age").value(41))
+                .andExpect(jsonPath("$.id").doesNotExist());
+
+        mockMvc.perform(get("/api/users").param("ids", user.getId() + ",999999").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].name").value("Sparse Doe"))
+                .andExpect(jsonPath("$.users[0].email").doesNotExist())
+                .andExpect(jsonPath("$.missing[0]").value(999999));
+    }
+
     @Test
     void shouldUpdateUser() throws Exception {
         // Create user
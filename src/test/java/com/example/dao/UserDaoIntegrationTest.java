@@ -12,6 +12,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.*;
 
 @Testcontainers
@@ -96,6 +97,29 @@ class UserDaoIntegrationTest {
         assertEquals(2, users.size());
     }
 
+    @Test
+    void testBatchOperations() {
+        List<User> users = List.of(
+                new User("Dan", "Dan@gmail.com", 20),
+                new User("Oleg", "Oleg@yandex.ru", 25),
+                new User("Ivan", "Ivan@mail.ru", 30));
+
+        userDao.saveAll(users);
+        List<Long> ids = users.stream().map(User::getId).collect(Collectors.toList());
+
+        List<User> found = userDao.findAllById(List.of(ids.get(2), -1L, ids.get(0)));
+        assertEquals(2, found.size());
+        assertEquals("Ivan", found.get(0).getName());
+        assertEquals("Dan", found.get(1).getName());
+
+        users.forEach(user -> user.setAge(user.getAge() + 1));
+        userDao.updateAll(users);
+        assertEquals(21, userDao.findById(ids.get(0)).orElseThrow().getAge());
+
+        assertEquals(2, userDao.deleteAll(List.of(ids.get(0), ids.get(1), -1L)));
+        assertEquals(1, userDao.findAll().size());
+    }
+
     @AfterAll
     static void tearDown() {
         HibernateUtil.shutdown();
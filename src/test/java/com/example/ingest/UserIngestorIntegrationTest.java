@@ -0,0 +1,74 @@
+package com.example.ingest;
+
+import com.example.dto.UserIngestStatus;
+import com.example.dto.UserIngestStatus.State;
+import com.example.dto.UserRequest;
+import com.example.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "app.ingest.write-behind=true"})
+class UserIngestorIntegrationTest {
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("app.ingest.wal-dir", Files.createTempDirectory("ingest-wal")::toString);
+    }
+
+    @Autowired
+    private UserIngestor userIngestor;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void drainsAcceptedSignupsAndReportsDuplicates() throws InterruptedException {
+        UserIngestStatus first = userIngestor.accept(request("behind@example.com"));
+        UserIngestStatus second = userIngestor.accept(request("behind@example.com"));
+        assertEquals(State.PENDING, first.getStatus());
+
+        UserIngestStatus created = awaitDrained(first.getTrackingId());
+        UserIngestStatus duplicate = awaitDrained(second.getTrackingId());
+
+        assertEquals(State.CREATED, created.getStatus());
+        assertEquals("behind@example.com", userRepository.findById(created.getUserId()).orElseThrow().getEmail());
+        assertEquals(State.DUPLICATE_EMAIL, duplicate.getStatus());
+        assertNull(duplicate.getUserId());
+    }
+
+    private UserIngestStatus awaitDrained(UUID trackingId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        UserIngestStatus status = userIngestor.status(trackingId);
+        while (status.getStatus() == State.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            status = userIngestor.status(trackingId);
+        }
+        return status;
+    }
+
+    private static UserRequest request(String email) {
+        UserRequest request = new UserRequest();
+        request.setName("Write Behind");
+        request.setEmail(email);
+        request.setAge(28);
+        return request;
+    }
+}
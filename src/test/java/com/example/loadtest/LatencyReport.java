@@ -0,0 +1,114 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms and error counters. Latencies are recorded from the
+ * request's <em>intended</em> start time on the open-loop schedule, so time a request spent
+ * waiting because the service (or the generator) fell behind is counted rather than
+ * omitted. Failed requests count towards the percentiles as well as the error rate;
+ * dropped ones (over the in-flight cap) only towards the error rate.
+ */
+final class LatencyReport {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> dropped = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new LongAdder());
+            dropped.put(operation, new LongAdder());
+        }
+    }
+
+    void recordSuccess(Operation operation, long latencyNanos) {
+        recorders.get(operation).recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    void recordError(Operation operation, long latencyNanos) {
+        recordSuccess(operation, latencyNanos);
+        errors.get(operation).increment();
+    }
+
+    void recordDropped(Operation operation) {
+        dropped.get(operation).increment();
+    }
+
+    List<EndpointStats> snapshot(double elapsedSeconds) {
+        List<EndpointStats> stats = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            long requests = histogram.getTotalCount();
+            long failed = errors.get(operation).sum();
+            long droppedRequests = dropped.get(operation).sum();
+            if (requests == 0 && droppedRequests == 0) {
+                continue;
+            }
+            stats.add(new EndpointStats(
+                    operation.endpoint(),
+                    requests,
+                    requests / elapsedSeconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    failed,
+                    droppedRequests,
+                    requests + droppedRequests == 0 ? 0 : (double) (failed + droppedRequests) / (requests + droppedRequests)));
+        }
+        return stats;
+    }
+
+    static void print(List<EndpointStats> stats, PrintStream out) {
+        out.printf("%-24s %10s %10s %10s %10s %10s %10s %8s %8s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors", "dropped", "error%");
+        for (EndpointStats s : stats) {
+            out.printf("%-24s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d %8d %8.2f%n",
+                    s.endpoint(), s.requests(), s.throughput(), s.p50Millis(), s.p99Millis(), s.p999Millis(),
+                    s.maxMillis(), s.errors(), s.dropped(), s.errorRate() * 100);
+        }
+    }
+
+    static void writeJson(LoadTestSettings settings, List<EndpointStats> stats, Path path) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rate", settings.rate());
+        report.put("durationSeconds", settings.duration().toSeconds());
+        report.put("seed", settings.seed());
+        report.put("mix", settings.mix());
+        report.put("endpoints", stats);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    record EndpointStats(String endpoint,
+                         long requests,
+                         double throughput,
+                         double p50Millis,
+                         double p99Millis,
+                         double p999Millis,
+                         double maxMillis,
+                         long errors,
+                         long dropped,
+                         double errorRate) {
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.loadtest;
+
+import com.example.UserServiceApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for {@code /api/users}. Requests are issued on a fixed schedule
+ * ({@code rate} per second) regardless of how fast responses come back, and each latency is
+ * measured from the scheduled start, which corrects for coordinated omission. Configuration
+ * is described on {@link LoadTestSettings}; run with
+ * {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="-Dloadtest.rate=1000"}.
+ */
+public final class LoadTest {
+    private static final int SEED_BATCH = 1000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestSettings settings;
+    private final String baseUrl;
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyReport report = new LatencyReport();
+    private final LiveIds ids = new LiveIds();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private LoadTest(LoadTestSettings settings, String baseUrl) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        try (Target target = Target.start(settings.target())) {
+            LoadTest loadTest = new LoadTest(settings, target.baseUrl());
+            loadTest.seed();
+            List<LatencyReport.EndpointStats> stats = loadTest.run();
+
+            System.out.printf("%n%d req/s for %ds against %s (%d seeded users)%n",
+                    settings.rate(), settings.duration().toSeconds(), target.baseUrl(), settings.seed());
+            LatencyReport.print(stats, System.out);
+            if (settings.report() != null) {
+                LatencyReport.writeJson(settings, stats, Path.of(settings.report()));
+            }
+        }
+    }
+
+    private void seed() throws Exception {
+        for (int offset = 0; offset < settings.seed(); offset += SEED_BATCH) {
+            ArrayNode batch = objectMapper.createArrayNode();
+            for (int i = offset; i < Math.min(offset + SEED_BATCH, settings.seed()); i++) {
+                batch.add(userJson(nextEmail()));
+            }
+            HttpResponse<String> response = httpClient.send(request("/api/users/batch")
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(batch.toString()))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode result : objectMapper.readTree(response.body()).path("results")) {
+                if ("CREATED".equals(result.path("status").asText())) {
+                    ids.add(result.path("id").asLong());
+                }
+            }
+        }
+    }
+
+    private List<LatencyReport.EndpointStats> run() throws InterruptedException {
+        Operation[] operations = settings.mix().keySet().toArray(new Operation[0]);
+        int[] cumulative = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += settings.mix().get(operations[i]);
+            cumulative[i] = total;
+        }
+
+        long period = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * period;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            int roll = ThreadLocalRandom.current().nextInt(total);
+            int index = 0;
+            while (roll >= cumulative[index]) {
+                index++;
+            }
+            issue(operations[index], intended, intended >= measureFrom);
+        }
+
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(50);
+        }
+        return report.snapshot(settings.duration().toNanos() / 1e9);
+    }
+
+    private void issue(Operation operation, long intended, boolean measured) {
+        if (outstanding.get() >= settings.maxOutstanding()) {
+            if (measured) {
+                report.recordDropped(operation);
+            }
+            return;
+        }
+
+        HttpRequest request;
+        int expectedStatus;
+        Long id = null;
+        switch (operation) {
+            case CREATE -> {
+                request = jsonRequest("/api/users", "POST", userJson(nextEmail()));
+                expectedStatus = 201;
+            }
+            case GET -> {
+                id = ids.random();
+                request = id == null ? null : request("/api/users/" + id).GET().build();
+                expectedStatus = 200;
+            }
+            case LIST -> {
+                request = request("/api/users?limit=50").GET().build();
+                expectedStatus = 200;
+            }
+            case UPDATE -> {
+                id = ids.random();
+                request = id == null ? null : jsonRequest("/api/users/" + id, "PUT", userJson(nextEmail()));
+                expectedStatus = 200;
+            }
+            case DELETE -> {
+                id = ids.removeRandom();
+                request = id == null ? null : request("/api/users/" + id).DELETE().build();
+                expectedStatus = 204;
+            }
+            default -> throw new IllegalStateException("Unknown operation " + operation);
+        }
+        if (request == null) {
+            // No live users left to address; counts against the endpoint like any refusal.
+            if (measured) {
+                report.recordDropped(operation);
+            }
+            return;
+        }
+
+        outstanding.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, failure) -> {
+                    long latency = System.nanoTime() - intended;
+                    outstanding.decrementAndGet();
+                    boolean ok = failure == null && response.statusCode() == expectedStatus;
+                    if (ok && operation == Operation.CREATE) {
+                        ids.add(createdId(response.body()));
+                    }
+                    if (!measured) {
+                        return;
+                    }
+                    if (ok) {
+                        report.recordSuccess(operation, latency);
+                    } else {
+                        report.recordError(operation, latency);
+                    }
+                });
+    }
+
+    private long createdId(String body) {
+        try {
+            return objectMapper.readTree(body).path("id").asLong();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected create response: " + body, e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private HttpRequest jsonRequest(String path, String method, ObjectNode body) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    private ObjectNode userJson(String email) {
+        ObjectNode user = objectMapper.createObjectNode();
+        user.put("name", "Load User");
+        user.put("email", email);
+        user.put("age", ThreadLocalRandom.current().nextInt(18, 80));
+        return user;
+    }
+
+    private String nextEmail() {
+        return "load-" + runId + "-" + emailSequence.incrementAndGet() + "@example.com";
+    }
+
+    /**
+     * Ids the generator may address; deletes take theirs out so no two deletes hit the same row.
+     */
+    private static final class LiveIds {
+        private long[] ids = new long[1024];
+        private int size;
+
+        synchronized void add(long id) {
+            if (size == ids.length) {
+                long[] grown = new long[size * 2];
+                System.arraycopy(ids, 0, grown, 0, size);
+                ids = grown;
+            }
+            ids[size++] = id;
+        }
+
+        synchronized Long random() {
+            return size == 0 ? null : ids[ThreadLocalRandom.current().nextInt(size)];
+        }
+
+        synchronized Long removeRandom() {
+            if (size == 0) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(size);
+            long id = ids[index];
+            ids[index] = ids[--size];
+            return id;
+        }
+    }
+
+    /**
+     * The service under test: booted here against a throwaway container or the configured
+     * local database, or an already running instance addressed by URL.
+     */
+    private record Target(String baseUrl, ConfigurableApplicationContext context,
+                          PostgreSQLContainer<?> postgres) implements AutoCloseable {
+
+        static Target start(String target) {
+            if (target.startsWith("http://") || target.startsWith("https://")) {
+                return new Target(target.replaceAll("/+$", ""), null, null);
+            }
+
+            List<String> args = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN"));
+            PostgreSQLContainer<?> postgres = null;
+            if ("container".equals(target)) {
+                postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+                postgres.start();
+                args.addAll(List.of(
+                        "--spring.datasource.url=" + postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword()));
+            } else if (!"local".equals(target)) {
+                throw new IllegalArgumentException("Unknown target: " + target);
+            }
+
+            ConfigurableApplicationContext context =
+                    SpringApplication.run(UserServiceApplication.class, args.toArray(new String[0]));
+            String port = context.getEnvironment().getProperty("local.server.port");
+            return new Target("http://localhost:" + port, context, postgres);
+        }
+
+        @Override
+        public void close() {
+            if (context != null) {
+                context.close();
+            }
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test knobs, read from {@code -Dloadtest.*} system properties:
+ * <ul>
+ *   <li>{@code target}: {@code container} (default, throwaway PostgreSQL), {@code local}
+ *       (application.properties datasource) or a base URL of an already running service</li>
+ *   <li>{@code rate}: requests per second, issued on a fixed schedule (open loop)</li>
+ *   <li>{@code duration}, {@code warmup}: ISO-8601 or {@code 30s}/{@code 2m}</li>
+ *   <li>{@code seed}: users created before the run</li>
+ *   <li>{@code mix}: relative weights, e.g. {@code create=10,get=60,list=15,update=10,delete=5}</li>
+ *   <li>{@code max-outstanding}: in-flight cap; requests beyond it are counted as dropped</li>
+ *   <li>{@code report}: optional path for a JSON copy of the report</li>
+ * </ul>
+ */
+record LoadTestSettings(String target,
+                        int rate,
+                        Duration duration,
+                        Duration warmup,
+                        int seed,
+                        Map<Operation, Integer> mix,
+                        int maxOutstanding,
+                        String report) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                property("target", "container"),
+                Integer.parseInt(property("rate", "500")),
+                duration(property("duration", "60s")),
+                duration(property("warmup", "15s")),
+                Integer.parseInt(property("seed", "10000")),
+                mix(property("mix", "create=10,get=60,list=15,update=10,delete=5")),
+                Integer.parseInt(property("max-outstanding", "10000")),
+                System.getProperty("loadtest.report"));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static Duration duration(String value) {
+        if (value.startsWith("P") || value.startsWith("p")) {
+            return Duration.parse(value);
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+
+    private static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain at least one operation");
+        }
+        return weights;
+    }
+}
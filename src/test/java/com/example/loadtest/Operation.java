@@ -0,0 +1,22 @@
+package com.example.loadtest;
+
+/**
+ * The {@code /api/users} calls the load test mixes, as reported per endpoint.
+ */
+enum Operation {
+    CREATE("POST /api/users"),
+    GET("GET /api/users/{id}"),
+    LIST("GET /api/users"),
+    UPDATE("PUT /api/users/{id}"),
+    DELETE("DELETE /api/users/{id}");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+}
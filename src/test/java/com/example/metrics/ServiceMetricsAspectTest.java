@@ -0,0 +1,57 @@
+package com.example.metrics;
+
+import com.example.exception.ConflictException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+class ServiceMetricsAspectTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UserService target = Mockito.mock(UserService.class);
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ServiceMetricsAspect(registry));
+        userService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void shouldTagOutcomes() {
+        when(target.getUserById(1L)).thenThrow(new ResourceNotFoundException("User not found with id: 1"));
+        when(target.updateUser(Mockito.eq(2L), Mockito.any())).thenThrow(new ConflictException("Email already exists"));
+        when(target.getUsersByIds(List.of())).thenThrow(new IllegalArgumentException("empty"));
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(1L));
+        assertThrows(ConflictException.class, () -> userService.updateUser(2L, null));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersByIds(List.of()));
+        userService.deleteUser(3L);
+
+        assertEquals(1, count("getUserById", "not_found"));
+        assertEquals(0, count("getUserById", "success"));
+        assertEquals(1, count("updateUser", "conflict"));
+        assertEquals(1, count("getUsersByIds", "validation"));
+        assertEquals(1, count("deleteUser", "success"));
+    }
+
+    private long count(String method, String outcome) {
+        return registry.get(ServiceMetricsAspect.METRIC)
+                .tag("class", "UserService")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.reactive;
+
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import com.example.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveUserController.class)
+@ActiveProfiles(ReactiveUserServiceApplication.PROFILE)
+class ReactiveUserControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveUserService userService;
+
+    @Test
+    void shouldCreateUser() {
+        when(userService.createUser(any(UserRequest.class))).thenReturn(Mono.just(user(1L)));
+
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request("john@example.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.email").isEqualTo("user1@example.com");
+    }
+
+    @Test
+    void shouldRejectInvalidRequestWithoutCallingService() {
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request("not-an-email"))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(userService, never()).createUser(any());
+    }
+
+    @Test
+    void shouldReturnNotFound() {
+        when(userService.getUserById(42L))
+                .thenReturn(Mono.error(new ResourceNotFoundException("User not found with id: 42")));
+
+        webTestClient.get().uri("/api/users/42")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldStreamUsersAsNdjson() {
+        when(userService.streamUsers()).thenReturn(Flux.just(user(1L), user(2L)));
+
+        webTestClient.get().uri("/api/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(UserResponse.class)
+                .hasSize(2);
+    }
+
+    private static UserRequest request(String email) {
+        UserRequest request = new UserRequest();
+        request.setName("John Doe");
+        request.setEmail(email);
+        request.setAge(30);
+        return request;
+    }
+
+    private static UserResponse user(Long id) {
+        UserResponse response = new UserResponse();
+        response.setId(id);
+        response.setName("User " + id);
+        response.setEmail("user" + id + "@example.com");
+        response.setAge(30);
+        return response;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.repository;
+
+import com.example.dao.UserDao;
+import com.example.dao.UserDaoImpl;
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import com.example.entity.User;
+import com.example.exception.ResourceNotFoundException;
+import com.example.service.UserService;
+import com.example.util.HibernateUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class SecondLevelCacheIntegrationTest {
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserService userService;
+
+    private final UserDao userDao = new UserDaoImpl();
+
+    /**
+     * The native SessionFactory is a JVM-wide singleton; drop one left by a DAO test so it
+     * is rebuilt on this context's pool and cache manager.
+     */
+    @BeforeAll
+    static void useApplicationConfiguration() {
+        System.clearProperty("test.mode");
+        HibernateUtil.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedFindByIdIsServedFromTheCache() {
+        Long id = userRepository.save(new User("Cached", "cached@example.com", 30)).getId();
+        Statistics statistics = springStatistics();
+        statistics.clear();
+
+        userRepository.findById(id).orElseThrow();
+        userRepository.findById(id).orElseThrow();
+
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void emailLookupUsesTheNaturalIdCache() {
+        userRepository.save(new User("Natural", "natural@example.com", 30));
+        Statistics statistics = springStatistics();
+        statistics.clear();
+
+        assertTrue(userRepository.findByNaturalEmail("natural@example.com").isPresent());
+        assertTrue(userRepository.findByNaturalEmail("natural@example.com").isPresent());
+
+        assertTrue(statistics.getNaturalIdCacheHitCount() > 0);
+        assertEquals(0, statistics.getNaturalIdQueryExecutionCount());
+    }
+
+    @Test
+    void emailLookupMissesOnceTheUserIsDeleted() {
+        UserRequest request = new UserRequest();
+        request.setName("Gone");
+        request.setEmail("gone@example.com");
+        request.setAge(30);
+        UserResponse created = userService.createUser(request);
+        assertEquals(created.getId(), userService.getUserByEmail("gone@example.com").getId());
+
+        userService.deleteUser(created.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserByEmail("gone@example.com"));
+    }
+
+    @Test
+    void nativeAndSpringPathsShareTheCache() {
+        Long id = userRepository.save(new User("Shared", "shared@example.com", 30)).getId();
+        Statistics nativeStatistics = HibernateUtil.getSessionFactory().getStatistics();
+        nativeStatistics.clear();
+
+        User user = userDao.findById(id).orElseThrow();
+        assertEquals(1, nativeStatistics.getSecondLevelCacheHitCount());
+        assertEquals(0, nativeStatistics.getEntityLoadCount());
+
+        user.setName("Renamed natively");
+        userDao.update(user);
+        Statistics statistics = springStatistics();
+        statistics.clear();
+
+        assertEquals("Renamed natively", userRepository.findById(id).orElseThrow().getName());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    private Statistics springStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
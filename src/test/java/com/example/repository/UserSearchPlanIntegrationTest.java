@@ -0,0 +1,147 @@
+package com.example.repository;
+
+import com.example.dto.CursorPage;
+import com.example.dto.UserResponse;
+import com.example.dto.UserSearchCriteria;
+import com.example.service.UserService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every supported search filter combination against a table large enough for the
+ * planner to prefer indexes, then EXPLAINs the exact SQL Hibernate generated (captured
+ * by a statement inspector) with the same bind values, and fails on any sequential scan.
+ */
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.repository.UserSearchPlanIntegrationTest$CapturingStatementInspector"
+})
+class UserSearchPlanIntegrationTest {
+    private static final int ROWS = 200_000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public static class CapturingStatementInspector implements StatementInspector {
+        private static volatile String lastSearch;
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("order by") && sql.contains("users")) {
+                lastSearch = sql;
+            }
+            return sql;
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, age, created_at, version)
+                SELECT nextval('users_seq'), substr(md5(g::text), 1, 10), 'plan' || g || '@example.com',
+                       g % 90, TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute', 0
+                FROM generate_series(1, ?) g
+                """, ROWS);
+        jdbcTemplate.execute("ANALYZE users");
+    }
+
+    static Stream<Arguments> filterCombinations() {
+        return Stream.of(
+                Arguments.of("none", criteria(null, null, null, null, null)),
+                Arguments.of("namePrefix", criteria("ab1", null, null, null, null)),
+                Arguments.of("ageRange", criteria(null, 30, 31, null, null)),
+                Arguments.of("minAgeOnly", criteria(null, 89, null, null, null)),
+                Arguments.of("createdWindow", criteria(null, null, null, EPOCH.plusDays(10), EPOCH.plusDays(11))),
+                Arguments.of("namePrefix+ageRange", criteria("ab1", 20, 40, null, null)),
+                Arguments.of("ageRange+createdWindow", criteria(null, 30, 35, EPOCH.plusDays(10), EPOCH.plusDays(12))),
+                Arguments.of("namePrefix+createdWindow", criteria("ab", null, null, EPOCH.plusDays(10), EPOCH.plusDays(20))),
+                Arguments.of("all", criteria("a", 20, 60, EPOCH.plusDays(10), EPOCH.plusDays(20))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filterCombinations")
+    void searchNeverScansTheWholeTable(String name, UserSearchCriteria criteria) {
+        CursorPage<UserResponse> page = userService.searchUsers(criteria, 50, null);
+        assertFalse(page.getItems().isEmpty(), "fixture should match " + name);
+
+        String sql = CapturingStatementInspector.lastSearch;
+        List<Object> binds = binds(criteria, 0L, 51);
+        assertEquals(binds.size(), sql.chars().filter(c -> c == '?').count(), "bind count for " + sql);
+
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, binds.toArray());
+        assertFalse(plan.contains("\"Seq Scan\""), name + " uses a sequential scan:\n" + plan);
+    }
+
+    /**
+     * Bind values in the order the specifications are combined in {@code UserService}:
+     * name, min age, max age, created from, created to, keyset id, then the row limit.
+     */
+    private static List<Object> binds(UserSearchCriteria criteria, long afterId, int limit) {
+        List<Object> binds = new ArrayList<>();
+        if (criteria.getNamePrefix() != null) {
+            binds.add(criteria.getNamePrefix().toLowerCase() + "%");
+        }
+        if (criteria.getMinAge() != null) {
+            binds.add(criteria.getMinAge());
+        }
+        if (criteria.getMaxAge() != null) {
+            binds.add(criteria.getMaxAge());
+        }
+        if (criteria.getCreatedFrom() != null) {
+            binds.add(criteria.getCreatedFrom());
+        }
+        if (criteria.getCreatedTo() != null) {
+            binds.add(criteria.getCreatedTo());
+        }
+        binds.add(afterId);
+        binds.add(limit);
+        return binds;
+    }
+
+    private static UserSearchCriteria criteria(String namePrefix, Integer minAge, Integer maxAge,
+                                               LocalDateTime createdFrom, LocalDateTime createdTo) {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setNamePrefix(namePrefix);
+        criteria.setMinAge(minAge);
+        criteria.setMaxAge(maxAge);
+        criteria.setCreatedFrom(createdFrom);
+        criteria.setCreatedTo(createdTo);
+        return criteria;
+    }
+}
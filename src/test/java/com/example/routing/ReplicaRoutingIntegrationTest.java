@@ -0,0 +1,145 @@
+package com.example.routing;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two independent PostgreSQL instances stand in for a primary and its replica; each
+ * query reports which one answered by its cluster system identifier.
+ */
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "app.email-filter.enabled=false",
+        "app.suggest.enabled=false", "app.datasource.replicas.health-interval=PT0.2S"})
+class ReplicaRoutingIntegrationTest {
+    private static final String SERVER = "SELECT system_identifier FROM pg_control_system()";
+
+    @Container
+    private static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    private static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static long primaryId;
+    private static long replicaId;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("app.datasource.replicas.urls", replica::getJdbcUrl);
+    }
+
+    @BeforeAll
+    static void identifyServers() throws SQLException {
+        primaryId = systemIdentifier(primary);
+        replicaId = systemIdentifier(replica);
+        assertNotEquals(primaryId, replicaId);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @Order(1)
+    void readOnlyTransactionsGoToTheReplica() {
+        routingDataSource.checkReplicas();
+
+        assertEquals(replicaId, server(true));
+        assertEquals(primaryId, server(false));
+        assertEquals(primaryId, jdbcTemplate.queryForObject(SERVER, Long.class), "no transaction");
+        assertEquals(primaryId, ReplicaRoutingDataSource.onPrimary(() -> server(true)));
+    }
+
+    @Test
+    @Order(2)
+    void clientReadsItsOwnWritesFromThePrimary() {
+        routingDataSource.checkReplicas();
+        MockHttpServletResponse writeResponse = inRequest(new MockHttpServletRequest());
+        writeTransaction().executeWithoutResult(status -> jdbcTemplate.execute("SELECT 1"));
+
+        assertEquals(primaryId, server(true), "same request");
+        Cookie pin = writeResponse.getCookie(ReadYourWrites.COOKIE);
+        assertNotNull(pin);
+
+        MockHttpServletRequest sameClient = new MockHttpServletRequest();
+        sameClient.setCookies(pin);
+        inRequest(sameClient);
+        assertEquals(primaryId, server(true), "next request of the writer");
+
+        inRequest(new MockHttpServletRequest());
+        assertEquals(replicaId, server(true), "another client");
+    }
+
+    @Test
+    @Order(3)
+    void readsFallBackToThePrimaryWhenTheReplicaIsDown() {
+        replica.stop();
+        routingDataSource.checkReplicas();
+
+        assertEquals(primaryId, server(true));
+    }
+
+    private long server(boolean readOnly) {
+        TransactionTemplate transaction = writeTransaction();
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject(SERVER, Long.class));
+    }
+
+    private TransactionTemplate writeTransaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private static MockHttpServletResponse inRequest(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private static long systemIdentifier(PostgreSQLContainer<?> server) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(server.getJdbcUrl(), server.getUsername(),
+                server.getPassword());
+             ResultSet rs = connection.createStatement().executeQuery(SERVER)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.search;
+
+import com.example.dto.UserSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    @Test
+    void shouldFindByNameOrEmailFragmentIgnoringCase() {
+        TrigramIndex index = new TrigramIndex(4);
+        index.upsert(1, "Jon Snow", "jon@winterfell.example");
+        index.upsert(2, "Arya Stark", "arya@winterfell.example");
+        index.upsert(3, "Tyrion Lannister", "tyrion@rock.example");
+
+        assertEquals(List.of(3L), ids(index.search("LANNIS", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("winterfell", 10)).stream().sorted().toList());
+    }
+
+    @Test
+    void shouldTreatShortQueriesAsPrefixes() {
+        TrigramIndex index = new TrigramIndex(4);
+        index.upsert(1, "Jon Snow", "jon@example.com");
+        index.upsert(2, "Benjen Stark", "benjen@example.com");
+
+        assertEquals(List.of(1L), ids(index.search("j", 10)));
+        assertEquals(List.of(1L), ids(index.search("jo", 10)));
+    }
+
+    @Test
+    void shouldToleratePartialMatchesAndRankExactOnesFirst() {
+        TrigramIndex index = new TrigramIndex(4);
+        index.upsert(1, "Samwell Tarly", "sam@example.com");
+        index.upsert(2, "Samwel Tarley", "samwel@example.com");
+        index.upsert(3, "Gilly", "gilly@example.com");
+
+        List<UserSuggestion> suggestions = index.search("samwell tarly", 10);
+
+        assertEquals(List.of(1L, 2L), ids(suggestions));
+        assertEquals(1.0, suggestions.get(0).getScore());
+        assertTrue(suggestions.get(1).getScore() < 1.0);
+    }
+
+    @Test
+    void shouldReflectUpdatesAndDeletes() {
+        TrigramIndex index = new TrigramIndex(4);
+        index.upsert(1, "Sansa Stark", "sansa@example.com");
+        index.upsert(2, "Bran Stark", "bran@example.com");
+
+        index.upsert(1, "Sansa Bolton", "sansa@example.com");
+        index.remove(2);
+
+        assertEquals(List.of(), ids(index.search("stark", 10)));
+        assertEquals(List.of(1L), ids(index.search("bolton", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void shouldKeepResultsAcrossCompaction() {
+        TrigramIndex index = new TrigramIndex(16);
+        for (int i = 0; i < 3000; i++) {
+            index.upsert(i, "User " + i, "user" + i + "@example.com");
+        }
+        for (int i = 0; i < 2000; i++) {
+            index.remove(i);
+        }
+        assertTrue(index.needsCompaction());
+
+        TrigramIndex compacted = index.compact();
+
+        assertFalse(compacted.needsCompaction());
+        assertEquals(1000, compacted.size());
+        assertEquals(List.of(2500L), ids(compacted.search("user2500@", 1)));
+        assertTrue(compacted.estimateBytes() < index.estimateBytes());
+    }
+
+    @Test
+    void shouldCapResultsAtLimit() {
+        TrigramIndex index = new TrigramIndex(16);
+        for (int i = 0; i < 100; i++) {
+            index.upsert(i, "Walder Frey " + i, "frey" + i + "@twins.example");
+        }
+
+        assertEquals(5, index.search("frey", 5).size());
+    }
+
+    private static List<Long> ids(List<UserSuggestion> suggestions) {
+        return suggestions.stream().map(UserSuggestion::getId).toList();
+    }
+}
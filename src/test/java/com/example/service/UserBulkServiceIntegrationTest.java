@@ -0,0 +1,128 @@
+package com.example.service;
+
+import com.example.dto.BulkOperationResult;
+import com.example.dto.UserFilter;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRequest;
+import com.example.exception.ResourceNotFoundException;
+import com.example.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(properties = "app.users.bulk-chunk-size=7")
+class UserBulkServiceIntegrationTest {
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void deleteByDomainRemovesOnlyMatchingUsersAcrossChunks() {
+        createUsers("cleanup.example.com", 30);
+        createUsers("keep.example.com", 10);
+
+        UserFilter filter = new UserFilter();
+        filter.setEmailDomain("CLEANUP.example.com");
+        BulkOperationResult result = userBulkService.deleteUsers(filter);
+
+        assertEquals(30, result.getAffected());
+        assertTrue(result.getChunks() > 1);
+        assertEquals(10, userRepository.count());
+    }
+
+    @Test
+    void chunksStartOnlyAtMatchingUsers() {
+        createUsers("sparse.example.com", 3);
+        createUsers("between.example.com", 30);
+        createUsers("sparse.example.com", 3, 3);
+
+        UserFilter filter = new UserFilter();
+        filter.setEmailDomain("sparse.example.com");
+        UserPatchRequest changes = new UserPatchRequest();
+        changes.setAge(50);
+        BulkOperationResult result = userBulkService.updateUsers(filter, changes);
+
+        // One range per run of matches, none for the 30 users in between.
+        assertEquals(6, result.getAffected());
+        assertEquals(2, result.getChunks());
+    }
+
+    @Test
+    void updateSetsFieldsAndBumpsVersion() {
+        List<Long> ids = createUsers("ages.example.com", 12);
+        Long before = userService.getUserById(ids.get(0)).getVersion();
+
+        UserFilter filter = new UserFilter();
+        filter.setEmailDomain("ages.example.com");
+        UserPatchRequest changes = new UserPatchRequest();
+        changes.setAge(42);
+        BulkOperationResult result = userBulkService.updateUsers(filter, changes);
+
+        assertEquals(12, result.getAffected());
+        // The cached copy was evicted, so this reads the updated row.
+        assertEquals(42, userService.getUserById(ids.get(0)).getAge());
+        assertEquals(before + 1, userService.getUserById(ids.get(0)).getVersion());
+    }
+
+    @Test
+    void requiresAFilter() {
+        assertThrows(IllegalArgumentException.class, () -> userBulkService.deleteUsers(new UserFilter()));
+    }
+
+    @Test
+    void singleDeleteReportsMissingUser() {
+        Long id = createUsers("single.example.com", 1).get(0);
+
+        userService.deleteUser(id);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(id));
+    }
+
+    private List<Long> createUsers(String domain, int count) {
+        return createUsers(domain, 0, count);
+    }
+
+    private List<Long> createUsers(String domain, int first, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            UserRequest request = new UserRequest();
+            request.setName("Bulk User " + i);
+            request.setEmail("user" + i + "@" + domain);
+            request.setAge(30);
+            ids.add(userService.createUser(request).getId());
+        }
+        return ids;
+    }
+}
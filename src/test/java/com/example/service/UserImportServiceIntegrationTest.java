@@ -0,0 +1,118 @@
+package com.example.service;
+
+import com.example.cache.EmailBloomFilter;
+import com.example.changes.UserChangeFeed;
+import com.example.dto.ImportRejection;
+import com.example.dto.ImportReport;
+import com.example.search.UserSuggestIndex;
+import com.example.stats.UserStats;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@Testcontainers
+class UserImportServiceIntegrationTest {
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbc;
+    private static UserImportService importService;
+
+    @BeforeAll
+    static void setup() {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(postgres.getJdbcUrl());
+        dataSource.setUser(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE SEQUENCE users_seq INCREMENT 50");
+        jdbc.execute("CREATE TABLE users (id bigint PRIMARY KEY, name varchar(100) NOT NULL, " +
+                "email varchar(100) NOT NULL UNIQUE, age integer, created_at timestamp(6) NOT NULL)");
+
+        importService = new UserImportService(dataSource, mock(UserSuggestIndex.class), mock(UserStats.class),
+                mock(UserChangeFeed.class), mock(EmailBloomFilter.class));
+        ReflectionTestUtils.setField(importService, "maxReportedRejections", 100);
+    }
+
+    @BeforeEach
+    void clearDatabase() {
+        jdbc.execute("DELETE FROM users");
+    }
+
+    @Test
+    void shouldImportValidRows() {
+        ImportReport report = importCsv("name,email,age\n" +
+                "Dan,dan@example.com,20\n" +
+                "Oleg,oleg@example.com,25\n");
+
+        assertEquals(2, report.getStaged());
+        assertEquals(2, report.getInserted());
+        assertEquals(0, report.getRejected());
+        assertEquals(2, jdbc.queryForObject("SELECT count(*) FROM users", Long.class));
+    }
+
+    @Test
+    void shouldReportDuplicatesAndInvalidRowsWithoutFailing() {
+        jdbc.update("INSERT INTO users VALUES (nextval('users_seq'), 'Existing', 'taken@example.com', 40, now())");
+
+        ImportReport report = importCsv("name,email,age\n" +
+                "Dan,dan@example.com,20\n" +
+                "Copy,dan@example.com,21\n" +
+                "Taken,taken@example.com,30\n" +
+                "NoAge,noage@example.com,abc\n" +
+                ",blank@example.com,30\n" +
+                "Bad,not-an-email,30\n");
+
+        assertEquals(6, report.getStaged());
+        assertEquals(1, report.getInserted());
+        assertEquals(5, report.getRejected());
+        List<String> reasons = report.getRejections().stream()
+                .map(ImportRejection::getReason)
+                .collect(Collectors.toList());
+        assertEquals(List.of("DUPLICATE_IN_FILE", "DUPLICATE_EMAIL", "INVALID_AGE", "INVALID_NAME", "INVALID_EMAIL"),
+                reasons);
+        assertEquals(3, report.getRejections().get(0).getLine());
+        assertEquals(2, jdbc.queryForObject("SELECT count(*) FROM users", Long.class));
+    }
+
+    @Test
+    void shouldReportTheSourceLineOfRowsAfterMultiLineFields() {
+        ImportReport report = importCsv("name,email,age\r\n" +
+                "\"Dan\nthe second\",dan@example.com,20\r\n" +
+                "Bad,not-an-email,30\r\n" +
+                "\"Oleg \"\"O\"\"\",oleg@example.com,abc\r\n");
+
+        assertEquals(3, report.getStaged());
+        assertEquals(List.of(4L, 5L), report.getRejections().stream()
+                .map(ImportRejection::getLine)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldRejectMalformedCsvAndRollBack() {
+        assertThrows(IllegalArgumentException.class, () -> importCsv("name,email,age\n" +
+                "Dan,dan@example.com,20\n" +
+                "\"unterminated,x@example.com,1\n"));
+
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM users", Long.class));
+    }
+
+    private ImportReport importCsv(String csv) {
+        return importService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.service;
+
+import com.example.cache.EmailBloomFilter;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import com.example.exception.ConflictException;
+import com.example.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserServiceConcurrencyIntegrationTest {
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void parallelCreatesWithCollidingEmailsKeepExactlyOneUserPerEmail() throws Exception {
+        int distinctEmails = 20;
+        int attemptsPerEmail = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> outcomes = new ArrayList<>();
+
+        for (int attempt = 0; attempt < attemptsPerEmail; attempt++) {
+            for (int i = 0; i < distinctEmails; i++) {
+                String email = "user" + i + "@example.com";
+                outcomes.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.createUser(request(email));
+                        return "created";
+                    } catch (ConflictException e) {
+                        return "conflict";
+                    }
+                }));
+            }
+        }
+        start.countDown();
+
+        int created = 0;
+        int conflicts = 0;
+        for (Future<String> outcome : outcomes) {
+            if ("created".equals(outcome.get(30, TimeUnit.SECONDS))) {
+                created++;
+            } else {
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(distinctEmails, created);
+        assertEquals(distinctEmails * (attemptsPerEmail - 1), conflicts);
+        assertEquals(distinctEmails, userRepository.count());
+    }
+
+    @Test
+    void createOfUnseenEmailSkipsTheExistenceQuery() {
+        emailFilter.rebuild();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userService.createUser(request("fresh@example.com"));
+
+        assertEquals(0, statistics.getQueryExecutionCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void createOfTakenEmailIsRejectedAsConflict() {
+        userService.createUser(request("taken@example.com"));
+
+        assertThrows(ConflictException.class, () -> userService.createUser(request("taken@example.com")));
+    }
+
+    @Test
+    void patchWithStaleVersionIsRejectedAsConflict() {
+        UserResponse created = userService.createUser(request("patched@example.com"));
+
+        UserPatchRequest patch = new UserPatchRequest();
+        patch.setAge(31);
+        UserResponse patched = userService.patchUser(created.getId(), patch, created.getVersion());
+
+        assertEquals(31, patched.getAge());
+        assertEquals("patched@example.com", patched.getEmail());
+        assertEquals(created.getVersion() + 1, patched.getVersion());
+        assertThrows(ConflictException.class, () -> userService.patchUser(created.getId(), patch, created.getVersion()));
+    }
+
+    @Test
+    void patchSkipsTheExistenceQueryAndNoOpUpdates() {
+        UserResponse created = userService.createUser(request("dynamic@example.com"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        UserPatchRequest patch = new UserPatchRequest();
+        patch.setAge(40);
+        userService.patchUser(created.getId(), patch, null);
+        UserPatchRequest unchanged = new UserPatchRequest();
+        unchanged.setAge(40);
+        userService.patchUser(created.getId(), unchanged, null);
+
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getQueryExecutionCount());
+    }
+
+    private static UserRequest request(String email) {
+        UserRequest request = new UserRequest();
+        request.setName("Concurrent User");
+        request.setEmail(email);
+        request.setAge(30);
+        return request;
+    }
+}
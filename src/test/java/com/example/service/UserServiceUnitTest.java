@@ -1,91 +1,127 @@
 package com.example.service;
 
-import com.example.dao.UserDao;
+import com.example.cache.EmailBloomFilter;
+import com.example.cache.UserCache;
+import com.example.changes.UserChangeFeed;
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
 import com.example.entity.User;
+import com.example.exception.ConflictException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.mapper.UserMapper;
+import com.example.repository.UserRepository;
+import com.example.stats.UserStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceUnitTest {
     @Mock
-    private UserDao userDao;
+    private UserRepository userRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private Validator validator;
+    @Mock
+    private EmailBloomFilter emailFilter;
+    @Mock
+    private UserStats userStats;
+    @Mock
+    private UserChangeFeed changeFeed;
 
-    @InjectMocks
     private UserService userService;
 
     private User testUser;
 
     @BeforeEach
     void setUp() {
+        UserCache userCache = new UserCache(false, 0, Duration.ZERO, new SimpleMeterRegistry());
+        userService = new UserService(userRepository, UserMapper.INSTANCE, entityManager, jdbcTemplate,
+                validator, userCache, emailFilter, userStats, changeFeed);
+
         testUser = new User("Test User", "test@example.com", 30);
         testUser.setId(1L);
         testUser.setCreatedAt(LocalDateTime.now());
     }
 
     @Test
-    void createUser_ShouldReturnId() {
+    void createUser_ShouldReturnSavedUser() {
         // Given
-        when(userDao.save(any(User.class))).thenAnswer(invocation -> {
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
             User u = invocation.getArgument(0);
             u.setId(1L);
-            return null;
+            return u;
         });
 
         // When
-        Long id = userService.createUser("Test", "test@email.com", 25);
+        UserResponse response = userService.createUser(request("Test", "test@email.com", 25));
 
         // Then
-        assertNotNull(id);
-        verify(userDao, times(1)).save(any(User.class));
+        assertEquals(1L, response.getId());
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(emailFilter).put("test@email.com");
+    }
+
+    @Test
+    void createUser_WhenEmailTaken_ShouldThrowConflict() {
+        // Given
+        when(emailFilter.mightContain("test@example.com")).thenReturn(true);
+        when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
+
+        // When / Then
+        assertThrows(ConflictException.class,
+                () -> userService.createUser(request("Test", "test@example.com", 25)));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
     void getUserById_WhenExists_ShouldReturnUser() {
         // Given
-        when(userDao.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
         // When
-        Optional<User> result = userService.getUserById(1L);
+        UserResponse result = userService.getUserById(1L);
 
         // Then
-        assertTrue(result.isPresent());
-        assertEquals(testUser, result.get());
+        assertEquals(1L, result.getId());
+        assertEquals("test@example.com", result.getEmail());
     }
 
     @Test
-    void getAllUsers_ShouldReturnList() {
+    void getUserById_WhenNotExists_ShouldThrow() {
         // Given
-        when(userDao.findAll()).thenReturn(List.of(testUser));
-
-        // When
-        List<User> users = userService.getAllUsers();
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
-        // Then
-        assertEquals(1, users.size());
-        assertEquals(testUser, users.get(0));
+        // When / Then
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(1L));
     }
 
     @Test
     void updateUser_WhenExists_ShouldUpdateFields() {
         // Given
-        when(userDao.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        userService.updateUser(1L, "New Name", "new@email.com", 35);
+        userService.updateUser(1L, request("New Name", "new@email.com", 35));
 
         // Then
-        verify(userDao).update(argThat(user ->
+        verify(userRepository).saveAndFlush(argThat(user ->
                 user.getName().equals("New Name") &&
                         user.getEmail().equals("new@email.com") &&
                         user.getAge() == 35
@@ -93,40 +129,30 @@ class UserServiceUnitTest {
     }
 
     @Test
-    void deleteUser_WhenExists_ShouldReturnTrue() {
+    void updateUser_WhenNotExists_ShouldThrow() {
         // Given
-        when(userDao.findById(1L)).thenReturn(Optional.of(testUser));
-
-        // When
-        boolean result = userService.deleteUser(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
-        // Then
-        assertTrue(result);
-        verify(userDao, times(1)).delete(1L);
+        // When / Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> userService.updateUser(1L, request("New Name", "new@email.com", 35)));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
-    void deleteUser_WhenNotExists_ShouldReturnFalse() {
-        // Given
-        when(userDao.findById(1L)).thenReturn(Optional.empty());
-
-        // When
-        boolean result = userService.deleteUser(1L);
+    void deleteUser_WhenNotExists_ShouldThrow() {
+        // Given: the mocked DELETE ... RETURNING reports no row
 
-        // Then
-        assertFalse(result);
-        verify(userDao, never()).delete(anyLong());
+        // When / Then
+        assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(1L));
+        verifyNoInteractions(userStats, changeFeed);
     }
 
-    @Test
-    void updateUser_WhenNotExists_ShouldDoNothing() {
-        // Given
-        when(userDao.findById(1L)).thenReturn(Optional.empty());
-
-        // When
-        userService.updateUser(1L, "New Name", "new@email.com", 35);
-
-        // Then
-        verify(userDao, never()).update(any(User.class));
+    private static UserRequest request(String name, String email, int age) {
+        UserRequest request = new UserRequest();
+        request.setName(name);
+        request.setEmail(email);
+        request.setAge(age);
+        return request;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.example.stats;
+
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRequest;
+import com.example.dto.UserStatsResponse;
+import com.example.repository.UserRepository;
+import com.example.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "app.stats.refresh-interval=PT1H"})
+class UserStatsIntegrationTest {
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStats userStats;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void reset() {
+        userRepository.deleteAll();
+        userStats.reconcile();
+    }
+
+    @Test
+    void serviceWritesKeepCountersAndRollupCurrent() {
+        Long young = createUser("young@example.com", 25);
+        Long middle = createUser("middle@example.com", 31);
+        createUser("other@example.com", 38);
+
+        userService.updateUser(young, request("young@example.com", 45));
+        UserPatchRequest patch = new UserPatchRequest();
+        patch.setAge(101);
+        userService.patchUser(middle, patch, null);
+        userService.deleteUser(middle);
+
+        UserStatsResponse stats = userStats.snapshot(1, false);
+        assertEquals(2, stats.getTotal());
+        assertFalse(stats.isApproximate());
+        assertEquals(Map.of("30-39", 1L, "40-49", 1L), stats.getAgeHistogram());
+        assertEquals(Map.of(LocalDate.now(), 2L), stats.getSignupsPerDay());
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT sum(users) FROM user_stats", Long.class));
+    }
+
+    @Test
+    void batchCreateIsCountedOnce() {
+        userService.createUsers(List.of(request("a@example.com", 20), request("b@example.com", 29),
+                request("a@example.com", 50)));
+
+        UserStatsResponse stats = userStats.snapshot(1, false);
+        assertEquals(2, stats.getTotal());
+        assertEquals(Map.of("20-29", 2L), stats.getAgeHistogram());
+    }
+
+    @Test
+    void reconciliationRepairsWritesThatBypassTheService() {
+        createUser("counted@example.com", 30);
+        jdbcTemplate.update("INSERT INTO users (id, name, email, age, created_at, updated_at, version) " +
+                "VALUES (nextval('users_seq'), 'Raw', 'raw@example.com', 70, LOCALTIMESTAMP, LOCALTIMESTAMP, 0)");
+        assertEquals(1, userStats.snapshot(1, false).getTotal());
+
+        userStats.reconcile();
+
+        UserStatsResponse stats = userStats.snapshot(1, false);
+        assertEquals(2, stats.getTotal());
+        assertEquals(Map.of("30-39", 1L, "70-79", 1L), stats.getAgeHistogram());
+    }
+
+    @Test
+    void approximateTotalComesFromPlannerStatistics() {
+        for (int i = 0; i < 20; i++) {
+            createUser("approx" + i + "@example.com", 40);
+        }
+        jdbcTemplate.execute("ANALYZE users");
+
+        UserStatsResponse stats = userStats.snapshot(1, true);
+
+        assertTrue(stats.isApproximate());
+        assertEquals(20, stats.getTotal());
+        assertEquals(Map.of("40-49", 20L), stats.getAgeHistogram());
+    }
+
+    private Long createUser(String email, int age) {
+        return userService.createUser(request(email, age)).getId();
+    }
+
+    private static UserRequest request(String email, int age) {
+        UserRequest request = new UserRequest();
+        request.setName("Stats User");
+        request.setEmail(email);
+        request.setAge(age);
+        return request;
+    }
+}